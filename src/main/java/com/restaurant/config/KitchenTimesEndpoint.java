@@ -0,0 +1,38 @@
+package com.restaurant.config;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import com.restaurant.service.KitchenTimingStats;
+
+// GET /actuator/kitchentimes[/{QUEUE|COOK|PASS}]: p50/p95/p99 (giây) theo món và theo giờ; DELETE để reset
+@Component
+@Endpoint(id = "kitchentimes")
+public class KitchenTimesEndpoint {
+
+    private final KitchenTimingStats kitchenTimingStats;
+
+    public KitchenTimesEndpoint(KitchenTimingStats kitchenTimingStats) {
+        this.kitchenTimingStats = kitchenTimingStats;
+    }
+
+    @ReadOperation
+    public Map<KitchenTimingStats.Stage, KitchenTimingStats.StageReport> all() {
+        return kitchenTimingStats.report();
+    }
+
+    @ReadOperation
+    public KitchenTimingStats.StageReport stage(@Selector KitchenTimingStats.Stage stage) {
+        return kitchenTimingStats.report(stage);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        kitchenTimingStats.reset();
+    }
+}
@@ -0,0 +1,146 @@
+package com.restaurant.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.restaurant.dto.ActionResponse;
+import com.restaurant.service.TokenBucketRateLimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Giới hạn tần suất cho /api/public/** theo IP và theo QR token,
+ * budget riêng cho đọc (menu, thông tin bàn) và submit order.
+ * Vượt giới hạn -> 429 + Retry-After, đếm qua metric public.ratelimit.rejected.
+ */
+@Component
+public class PublicRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String PUBLIC_PREFIX = "/api/public/";
+    private static final String TABLES_PREFIX = "/api/public/tables/";
+
+    private final TokenBucketRateLimiter readByIp;
+    private final TokenBucketRateLimiter readByToken;
+    private final TokenBucketRateLimiter submitByIp;
+    private final TokenBucketRateLimiter submitByToken;
+
+    private final Counter rejectedReadIp;
+    private final Counter rejectedReadToken;
+    private final Counter rejectedSubmitIp;
+    private final Counter rejectedSubmitToken;
+
+    private final JsonMapper jsonMapper;
+
+    public PublicRateLimitFilter(MeterRegistry meterRegistry, JsonMapper jsonMapper,
+                                 @Value("${app.ratelimit.read.ip.capacity:600}") int readIpCapacity,
+                                 @Value("${app.ratelimit.read.ip.per-minute:1200}") int readIpPerMinute,
+                                 @Value("${app.ratelimit.read.token.capacity:60}") int readTokenCapacity,
+                                 @Value("${app.ratelimit.read.token.per-minute:120}") int readTokenPerMinute,
+                                 @Value("${app.ratelimit.submit.ip.capacity:30}") int submitIpCapacity,
+                                 @Value("${app.ratelimit.submit.ip.per-minute:60}") int submitIpPerMinute,
+                                 @Value("${app.ratelimit.submit.token.capacity:5}") int submitTokenCapacity,
+                                 @Value("${app.ratelimit.submit.token.per-minute:6}") int submitTokenPerMinute) {
+        this.jsonMapper = jsonMapper;
+
+        this.readByIp = new TokenBucketRateLimiter(readIpCapacity, readIpPerMinute);
+        this.readByToken = new TokenBucketRateLimiter(readTokenCapacity, readTokenPerMinute);
+        this.submitByIp = new TokenBucketRateLimiter(submitIpCapacity, submitIpPerMinute);
+        this.submitByToken = new TokenBucketRateLimiter(submitTokenCapacity, submitTokenPerMinute);
+
+        this.rejectedReadIp = rejectedCounter(meterRegistry, "read", "ip");
+        this.rejectedReadToken = rejectedCounter(meterRegistry, "read", "token");
+        this.rejectedSubmitIp = rejectedCounter(meterRegistry, "submit", "ip");
+        this.rejectedSubmitToken = rejectedCounter(meterRegistry, "submit", "token");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(PUBLIC_PREFIX)
+                || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String uri = request.getRequestURI();
+        boolean submit = "POST".equalsIgnoreCase(request.getMethod()) && uri.endsWith("/submit");
+        String token = extractToken(uri);
+        String ip = request.getRemoteAddr();
+
+        TokenBucketRateLimiter.Decision decision;
+        if (submit) {
+            decision = check(submitByIp, ip, rejectedSubmitIp);
+            if (decision.allowed() && token != null) {
+                decision = check(submitByToken, token, rejectedSubmitToken);
+            }
+        } else {
+            decision = check(readByIp, ip, rejectedReadIp);
+            if (decision.allowed() && token != null) {
+                decision = check(readByToken, token, rejectedReadToken);
+            }
+        }
+
+        if (!decision.allowed()) {
+            reject(response, decision.retryAfterSeconds());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        readByIp.evictIdle();
+        readByToken.evictIdle();
+        submitByIp.evictIdle();
+        submitByToken.evictIdle();
+    }
+
+    private static TokenBucketRateLimiter.Decision check(TokenBucketRateLimiter limiter, String key, Counter rejected) {
+        TokenBucketRateLimiter.Decision decision = limiter.tryAcquire(key);
+        if (!decision.allowed()) {
+            rejected.increment();
+        }
+        return decision;
+    }
+
+    // /api/public/tables/{token} hoặc /api/public/tables/{token}/submit
+    private static String extractToken(String uri) {
+        if (!uri.startsWith(TABLES_PREFIX)) {
+            return null;
+        }
+        String rest = uri.substring(TABLES_PREFIX.length());
+        int slash = rest.indexOf('/');
+        String token = slash < 0 ? rest : rest.substring(0, slash);
+        return token.isEmpty() ? null : token;
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(jsonMapper.writeValueAsString(
+                new ActionResponse("Bạn thao tác quá nhanh, vui lòng thử lại sau " + retryAfterSeconds + " giây.")));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String kind, String scope) {
+        return Counter.builder("public.ratelimit.rejected")
+                .description("Số request /api/public bị từ chối do vượt giới hạn")
+                .tag("kind", kind)
+                .tag("scope", scope)
+                .register(registry);
+    }
+}
@@ -33,8 +33,11 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/menu/**").permitAll()
 
                 // Internal
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/tables/**").hasAnyRole("WAITER", "ADMIN")
                 .requestMatchers("/api/orders/**").hasAnyRole("WAITER", "ADMIN")
+                .requestMatchers("/api/kitchen/**").hasAnyRole("WAITER", "ADMIN")
+                .requestMatchers(HttpMethod.DELETE, "/actuator/kitchentimes").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/orders/*/checkout").hasAnyRole("CASHIER", "ADMIN")
 
                 .anyRequest().authenticated()
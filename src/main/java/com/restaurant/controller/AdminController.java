@@ -0,0 +1,33 @@
+package com.restaurant.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.restaurant.dto.QrTokenDto;
+import com.restaurant.repository.TableRepository;
+import com.restaurant.service.QrTokenService;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final TableRepository tableRepository;
+    private final QrTokenService qrTokenService;
+
+    public AdminController(TableRepository tableRepository, QrTokenService qrTokenService) {
+        this.tableRepository = tableRepository;
+        this.qrTokenService = qrTokenService;
+    }
+
+    // In QR mới: token ký HMAC theo epoch hiện tại cho từng bàn
+    @GetMapping("/tables/qr-tokens")
+    public List<QrTokenDto> qrTokens() {
+        return tableRepository.findAll().stream()
+                .map(t -> new QrTokenDto(t.getId(), t.getCode(), qrTokenService.issueToken(t.getId()),
+                        qrTokenService.getCurrentEpoch()))
+                .toList();
+    }
+}
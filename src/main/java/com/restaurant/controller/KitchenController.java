@@ -0,0 +1,52 @@
+package com.restaurant.controller;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.restaurant.dto.AllDayCountDto;
+import com.restaurant.dto.KitchenTicketDto;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.service.KitchenAllDayCounts;
+import com.restaurant.service.KitchenBoardBroadcaster;
+import com.restaurant.service.KitchenQueue;
+
+@RestController
+@RequestMapping("/api/kitchen")
+public class KitchenController {
+
+    private final KitchenQueue kitchenQueue;
+    private final KitchenBoardBroadcaster kitchenBoardBroadcaster;
+    private final KitchenAllDayCounts kitchenAllDayCounts;
+
+    public KitchenController(KitchenQueue kitchenQueue,
+                             KitchenBoardBroadcaster kitchenBoardBroadcaster,
+                             KitchenAllDayCounts kitchenAllDayCounts) {
+        this.kitchenQueue = kitchenQueue;
+        this.kitchenBoardBroadcaster = kitchenBoardBroadcaster;
+        this.kitchenAllDayCounts = kitchenAllDayCounts;
+    }
+
+    // Hàng đợi bếp (đọc từ bộ nhớ), xếp theo thời điểm gửi bếp; lọc theo status nếu cần
+    @GetMapping("/queue")
+    public List<KitchenTicketDto> queue(@RequestParam(required = false) ItemStatus status) {
+        return status == null ? kitchenQueue.list() : kitchenQueue.list(status);
+    }
+
+    // All-day: tổng phần từng món đang PENDING/COOKING trên mọi bàn (bộ đếm trong bộ nhớ)
+    @GetMapping("/all-day")
+    public List<AllDayCountDto> allDay() {
+        return kitchenAllDayCounts.list();
+    }
+
+    // SSE: event "snapshot" (cả hàng đợi) khi kết nối, sau đó "ticket" (món đổi) / "removed" ({itemId})
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return kitchenBoardBroadcaster.subscribe();
+    }
+}
@@ -1,8 +1,12 @@
 package com.restaurant.controller;
 
-import com.restaurant.entity.MenuItemEntity;
-import com.restaurant.repository.MenuItemRepository;
+import com.restaurant.dto.ActionResponse;
+import com.restaurant.dto.MenuCategoryDto;
+import com.restaurant.dto.PublicMenuItemDto;
+import com.restaurant.service.MenuSnapshot;
+import com.restaurant.service.MenuSnapshotService;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -10,14 +14,27 @@ import java.util.List;
 @RestController
 public class MenuController {
 
-    private final MenuItemRepository menuItemRepository;
+    private final MenuSnapshotService menuSnapshotService;
 
-    public MenuController(MenuItemRepository menuItemRepository) {
-        this.menuItemRepository = menuItemRepository;
+    public MenuController(MenuSnapshotService menuSnapshotService) {
+        this.menuSnapshotService = menuSnapshotService;
     }
 
     @GetMapping("/api/menu")
-    public List<MenuItemEntity> getMenu() {
-        return menuItemRepository.findByIsAvailableTrueOrderByIdAsc();
+    public List<PublicMenuItemDto> getMenu() {
+        return menuSnapshotService.current().availableItems();
+    }
+
+    // Menu nhóm theo danh mục (DTO nhẹ, không trả entity JPA)
+    @GetMapping("/api/menu/categories")
+    public List<MenuCategoryDto> getMenuByCategory() {
+        return menuSnapshotService.current().categories();
+    }
+
+    // Admin: ép build lại snapshot (VD: sau khi sửa menu trực tiếp trong DB)
+    @PostMapping("/api/admin/menu/rebuild")
+    public ActionResponse rebuildMenu() {
+        MenuSnapshot snapshot = menuSnapshotService.rebuild();
+        return new ActionResponse("Đã build lại menu. Version: " + snapshot.version());
     }
 }
@@ -1,11 +1,15 @@
 package com.restaurant.controller;
 
+import java.time.Instant;
+
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -13,12 +17,19 @@ import org.springframework.web.bind.annotation.RestController;
 import com.restaurant.dto.ActionResponse;
 import com.restaurant.dto.AddOrderItemRequest;
 import com.restaurant.dto.BillDto;
+import com.restaurant.dto.BulkItemStatusRequest;
+import com.restaurant.dto.BulkItemStatusResponse;
 import com.restaurant.dto.CheckoutRequest;
 import com.restaurant.dto.CheckoutResponse;
 import com.restaurant.dto.DraftOrderDto;
 import com.restaurant.dto.OrderDetailDto;
+import com.restaurant.dto.OrderHistoryPageDto;
 import com.restaurant.dto.UpdateItemStatusRequest;
 import com.restaurant.dto.UpdateOrderItemRequest;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.PaymentMethod;
+import com.restaurant.service.IdempotencyStore;
+import com.restaurant.service.OrderHistoryService;
 import com.restaurant.service.OrderService;
 
 import jakarta.validation.Valid;
@@ -28,9 +39,15 @@ import jakarta.validation.Valid;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderHistoryService orderHistoryService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           IdempotencyStore idempotencyStore,
+                           OrderHistoryService orderHistoryService) {
         this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
+        this.orderHistoryService = orderHistoryService;
     }
 
     @GetMapping("/draft")
@@ -57,6 +74,21 @@ public class OrderController {
     public ActionResponse removeItem(@PathVariable Long orderId, @PathVariable Long itemId) {
         return orderService.removeItem(orderId, itemId);
     }
+
+    // Lịch sử order (mới nhất trước), phân trang keyset: trang sau gửi lại nextCursor
+    @GetMapping("/history")
+    public OrderHistoryPageDto history(
+            @RequestParam(required = false) Long tableId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) PaymentMethod method,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return orderHistoryService.findHistory(
+                new OrderHistoryService.Filter(tableId, status, method, from, to), cursor, limit);
+    }
+
     @GetMapping("/{orderId}")
     public OrderDetailDto detail(@PathVariable Long orderId) {
         return orderService.getOrderDetail(orderId);
@@ -66,15 +98,25 @@ public class OrderController {
                                        @PathVariable Long itemId,
                                        @Valid @RequestBody UpdateItemStatusRequest req) {
         return orderService.updateItemStatus(orderId, itemId, req);
-    } 
+    }
+
+    // Bump hàng loạt: nhiều (orderId, itemId, newStatus) trong 1 request, trả kết quả từng món
+    @PostMapping("/items/status")
+    public BulkItemStatusResponse bulkUpdateItemStatus(@Valid @RequestBody BulkItemStatusRequest req) {
+        return orderService.bulkUpdateItemStatus(req.items());
+    }
     @GetMapping("/{orderId}/bill")
     public BillDto bill(@PathVariable Long orderId) {
         return orderService.getBill(orderId);
     }
 
+    // Thu ngân bấm 2 lần cùng Idempotency-Key -> lần 2 nhận lại đúng CheckoutResponse
     @PostMapping("/{orderId}/checkout")
-    public CheckoutResponse checkout(@PathVariable Long orderId, @Valid @RequestBody CheckoutRequest req) {
-        return orderService.checkout(orderId, req);
+    public CheckoutResponse checkout(@PathVariable Long orderId,
+                                     @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                     @Valid @RequestBody CheckoutRequest req) {
+        return idempotencyStore.execute("checkout:" + orderId, idempotencyKey, req,
+                () -> orderService.checkout(orderId, req));
     }
 
 
@@ -2,21 +2,31 @@ package com.restaurant.controller;
 
 import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.restaurant.dto.PublicMenuItemDto;
 import com.restaurant.dto.PublicTableInfoDto;
 import com.restaurant.dto.SubmitOrderRequest;
 import com.restaurant.dto.SubmitOrderResponse;
-import com.restaurant.entity.TableEntity;
-import com.restaurant.repository.MenuItemRepository;
-import com.restaurant.repository.TableRepository;
+import com.restaurant.service.IdempotencyStore;
+import com.restaurant.service.MenuAvailabilityBroadcaster;
+import com.restaurant.service.MenuPayloadService;
+import com.restaurant.service.MenuSearchIndex;
 import com.restaurant.service.PublicOrderingService;
+import com.restaurant.service.QrTokenService;
 
 import jakarta.validation.Valid;
 
@@ -24,44 +34,114 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/public")
 public class PublicController {
 
-    private final TableRepository tableRepository;
-    private final MenuItemRepository menuItemRepository;
+    private final QrTokenService qrTokenService;
+    private final MenuPayloadService menuPayloadService;
+    private final MenuAvailabilityBroadcaster menuAvailabilityBroadcaster;
+    private final MenuSearchIndex menuSearchIndex;
     private final PublicOrderingService publicOrderingService;
+    private final IdempotencyStore idempotencyStore;
 
-    public PublicController(TableRepository tableRepository,
-                            MenuItemRepository menuItemRepository,
-                            PublicOrderingService publicOrderingService) {
-        this.tableRepository = tableRepository;
-        this.menuItemRepository = menuItemRepository;
+    public PublicController(QrTokenService qrTokenService,
+                            MenuPayloadService menuPayloadService,
+                            MenuAvailabilityBroadcaster menuAvailabilityBroadcaster,
+                            MenuSearchIndex menuSearchIndex,
+                            PublicOrderingService publicOrderingService,
+                            IdempotencyStore idempotencyStore) {
+        this.qrTokenService = qrTokenService;
+        this.menuPayloadService = menuPayloadService;
+        this.menuAvailabilityBroadcaster = menuAvailabilityBroadcaster;
+        this.menuSearchIndex = menuSearchIndex;
         this.publicOrderingService = publicOrderingService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     // Khách mở link -> lấy thông tin bàn
     @GetMapping("/tables/{token}")
     public PublicTableInfoDto getTableByToken(@PathVariable String token) {
-        TableEntity t = tableRepository.findByQrToken(token)
-                .orElseThrow(() -> new com.restaurant.exception.NotFoundException("Không tìm thấy bàn với token=" + token));
-        return new PublicTableInfoDto(t.getId(), t.getCode(), t.getStatus());
+        return qrTokenService.getPublicTableInfo(token);
     }
 
-    // Menu public (có imageUrl)
+    // Menu public (có imageUrl) - JSON render sẵn theo version, hỗ trợ gzip + ETag
     @GetMapping("/menu")
-    public List<PublicMenuItemDto> getMenu() {
-        return menuItemRepository.findAll().stream()
-                .map(m -> new PublicMenuItemDto(
-                        m.getId(),
-                        m.getCategoryId(),
-                        m.getName(),
-                        m.getPrice(),
-                        m.getIsAvailable(),
-                        m.getImageUrl()   // bạn đang dùng image_url
-                ))
-                .toList();
+    public ResponseEntity<byte[]> getMenu(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MenuPayloadService.MenuPayload payload = menuPayloadService.current();
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        if (payload.matches(ifNoneMatch, gzip)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(payload.etag(gzip))
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(payload.etag(gzip))
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return builder.body(payload.identity());
+    }
+
+    // "gzip;q=0" nghĩa là từ chối gzip; "*" chỉ tính khi gzip không được nêu riêng
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase();
+            boolean accepted = qualityOf(params) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qualityOf(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Tìm món không dấu / theo prefix: "pho" -> "Phở bò"
+    @GetMapping("/menu/search")
+    public List<PublicMenuItemDto> searchMenu(@RequestParam String q,
+                                              @RequestParam(defaultValue = "20") int limit) {
+        return menuSearchIndex.search(q, Math.min(limit, 100));
+    }
+
+    // Stream SSE: đẩy thay đổi còn/hết món (event "availability": [{itemId, isAvailable}])
+    @GetMapping(value = "/menu/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMenuAvailability() {
+        return menuAvailabilityBroadcaster.subscribe();
     }
 
-    // Khách submit order DRAFT theo token
+    // Khách submit order DRAFT theo token (retry cùng Idempotency-Key -> trả lại response cũ)
     @PostMapping("/tables/{token}/submit")
-    public SubmitOrderResponse submit(@PathVariable String token, @Valid @RequestBody SubmitOrderRequest req) {
-        return publicOrderingService.submitByToken(token, req);
+    public SubmitOrderResponse submit(@PathVariable String token,
+                                      @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                      @Valid @RequestBody SubmitOrderRequest req) {
+        return idempotencyStore.execute("submit:" + token, idempotencyKey, req,
+                () -> publicOrderingService.submitByToken(token, req));
     }
 }
@@ -1,8 +1,15 @@
 package com.restaurant.controller;
 
+import com.restaurant.dto.BulkTableTransitionRequest;
+import com.restaurant.dto.BulkTableTransitionResponse;
 import com.restaurant.dto.TableDto;
+import com.restaurant.service.TableBoardBroadcaster;
 import com.restaurant.service.TableService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.validation.Valid;
 
 import java.util.List;
 
@@ -11,9 +18,11 @@ import java.util.List;
 public class TableController {
 
     private final TableService tableService;
+    private final TableBoardBroadcaster tableBoardBroadcaster;
 
-    public TableController(TableService tableService) {
+    public TableController(TableService tableService, TableBoardBroadcaster tableBoardBroadcaster) {
         this.tableService = tableService;
+        this.tableBoardBroadcaster = tableBoardBroadcaster;
     }
 
     @GetMapping
@@ -21,6 +30,12 @@ public class TableController {
         return tableService.listTables();
     }
 
+    // SSE: event "snapshot" (toàn bộ bàn) khi kết nối, sau đó event "table" cho từng bàn thay đổi
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTables() {
+        return tableBoardBroadcaster.subscribe();
+    }
+
     @PostMapping("/{tableId}/open")
     public TableDto openTable(@PathVariable Long tableId) {
         return tableService.openTable(tableId);
@@ -40,4 +55,10 @@ public class TableController {
     public TableDto setAvailable(@PathVariable Long tableId) {
         return tableService.setAvailable(tableId);
     }
+
+    // Áp 1 transition cho nhiều bàn (VD: mở/đóng cả khu lúc đổi ca), trả kết quả từng bàn
+    @PostMapping("/bulk")
+    public BulkTableTransitionResponse bulkTransition(@Valid @RequestBody BulkTableTransitionRequest req) {
+        return tableService.bulkTransition(req.transition(), req.tableIds());
+    }
 }
@@ -0,0 +1,4 @@
+package com.restaurant.dto;
+
+// Tổng số phần của 1 món đang PENDING/COOKING trên mọi bàn (VD: 12× Phở bò)
+public record AllDayCountDto(Long menuItemId, String name, Long qty) {}
@@ -0,0 +1,21 @@
+package com.restaurant.dto;
+
+import java.util.List;
+
+import com.restaurant.enums.ItemStatus;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record BulkItemStatusRequest(
+        @NotEmpty @Size(max = 200) List<@Valid @NotNull ItemStatusChange> items
+) {
+    public record ItemStatusChange(
+            @NotNull Long orderId,
+            @NotNull Long itemId,
+            @NotNull ItemStatus newStatus,
+            String cancelReason
+    ) {}
+}
@@ -0,0 +1,20 @@
+package com.restaurant.dto;
+
+import java.util.List;
+
+import com.restaurant.enums.ItemStatus;
+
+public record BulkItemStatusResponse(
+        int succeeded,
+        int failed,
+        List<ItemResult> results
+) {
+    public record ItemResult(
+            Long orderId,
+            Long itemId,
+            boolean success,
+            ItemStatus previousStatus,
+            ItemStatus status,
+            String message
+    ) {}
+}
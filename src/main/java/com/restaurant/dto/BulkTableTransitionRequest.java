@@ -0,0 +1,14 @@
+package com.restaurant.dto;
+
+import java.util.List;
+
+import com.restaurant.enums.TableTransition;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record BulkTableTransitionRequest(
+        @NotNull TableTransition transition,
+        @NotEmpty @Size(max = 200) List<@NotNull Long> tableIds
+) {}
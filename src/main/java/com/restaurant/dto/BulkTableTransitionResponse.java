@@ -0,0 +1,19 @@
+package com.restaurant.dto;
+
+import java.util.List;
+
+import com.restaurant.enums.TableTransition;
+
+public record BulkTableTransitionResponse(
+        TableTransition transition,
+        int succeeded,
+        int failed,
+        List<TableResult> results
+) {
+    public record TableResult(
+            Long tableId,
+            boolean success,
+            TableDto table,
+            String message
+    ) {}
+}
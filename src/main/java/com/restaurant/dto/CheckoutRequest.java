@@ -4,11 +4,14 @@ import java.math.BigDecimal;
 
 import com.restaurant.enums.PaymentMethod;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
+// Số tiền cùng giới hạn với cột DECIMAL(12,2) -> chuyển sang Money không bao giờ tràn long
 public record CheckoutRequest(
         @NotNull PaymentMethod method,
-        BigDecimal discountAmount,
-        BigDecimal taxAmount,
-        BigDecimal serviceFeeAmount
+        @PositiveOrZero @Digits(integer = 10, fraction = 2) BigDecimal discountAmount,
+        @PositiveOrZero @Digits(integer = 10, fraction = 2) BigDecimal taxAmount,
+        @PositiveOrZero @Digits(integer = 10, fraction = 2) BigDecimal serviceFeeAmount
 ) {}
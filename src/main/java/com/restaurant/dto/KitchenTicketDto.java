@@ -0,0 +1,23 @@
+package com.restaurant.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import com.restaurant.enums.ItemStatus;
+
+// 1 dòng món trên màn hình bếp (món đã gửi bếp, chưa SERVED/CANCELED)
+public record KitchenTicketDto(
+        Long itemId,
+        Long orderId,
+        Long tableId,
+        Long menuItemId,
+        String name,
+        Integer qty,
+        String note,
+        ItemStatus status,
+        LocalDateTime sentAt,
+        LocalDateTime cookingAt,
+        LocalDateTime readyAt,
+        LocalDateTime servedAt,
+        Instant updatedAt
+) {}
@@ -0,0 +1,6 @@
+package com.restaurant.dto;
+
+public record MenuAvailabilityDelta(
+        Long itemId,
+        Boolean isAvailable
+) {}
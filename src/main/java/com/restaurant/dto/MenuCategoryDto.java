@@ -0,0 +1,9 @@
+package com.restaurant.dto;
+
+import java.util.List;
+
+public record MenuCategoryDto(
+        Long id,
+        String name,
+        List<PublicMenuItemDto> items
+) {}
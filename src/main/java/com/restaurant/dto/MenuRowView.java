@@ -0,0 +1,14 @@
+package com.restaurant.dto;
+
+import java.math.BigDecimal;
+
+// 1 dòng của query projection menu (danh mục LEFT JOIN món). item* = null nếu danh mục chưa có món.
+public record MenuRowView(
+        Long categoryId,
+        String categoryName,
+        Long itemId,
+        String itemName,
+        BigDecimal price,
+        Boolean isAvailable,
+        String imageUrl
+) {}
@@ -0,0 +1,9 @@
+package com.restaurant.dto;
+
+import java.util.List;
+
+// nextCursor = null khi đã hết dữ liệu; gửi lại qua ?cursor= để lấy trang tiếp
+public record OrderHistoryPageDto(
+        List<OrderHistoryRowDto> items,
+        String nextCursor
+) {}
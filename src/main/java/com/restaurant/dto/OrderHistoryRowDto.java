@@ -0,0 +1,32 @@
+package com.restaurant.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import com.restaurant.entity.Money;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.PaymentMethod;
+
+// 1 dòng lịch sử order (kèm payment nếu đã thanh toán) - không load món
+public record OrderHistoryRowDto(
+        Long orderId,
+        Long tableId,
+        OrderStatus status,
+        BigDecimal subtotal,
+        Integer itemCount,
+        Instant createdAt,
+        LocalDateTime completedAt,
+        Long paymentId,
+        PaymentMethod paymentMethod,
+        BigDecimal totalAmount,
+        LocalDateTime paidAt
+) {
+    // Cho JPQL "select new": cột tiền trên entity là Money, API trả BigDecimal như các DTO khác
+    public OrderHistoryRowDto(Long orderId, Long tableId, OrderStatus status, Money subtotal, Integer itemCount,
+                              Instant createdAt, LocalDateTime completedAt, Long paymentId,
+                              PaymentMethod paymentMethod, Money totalAmount, LocalDateTime paidAt) {
+        this(orderId, tableId, status, subtotal.toBigDecimal(), itemCount, createdAt, completedAt, paymentId,
+                paymentMethod, totalAmount == null ? null : totalAmount.toBigDecimal(), paidAt);
+    }
+}
@@ -0,0 +1,21 @@
+package com.restaurant.dto;
+
+import com.restaurant.entity.Money;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.enums.OrderStatus;
+
+// 1 dòng của query order LEFT JOIN order_items. item* = null nếu order chưa có món.
+public record OrderLineRow(
+        Long orderId,
+        Long tableId,
+        OrderStatus orderStatus,
+        String orderNote,
+        Money orderSubtotal,
+        Long itemId,
+        Long menuItemId,
+        String name,
+        Money unitPrice,
+        Integer qty,
+        String itemNote,
+        ItemStatus itemStatus
+) {}
@@ -0,0 +1,26 @@
+package com.restaurant.dto;
+
+import java.math.BigDecimal;
+
+import com.restaurant.entity.Money;
+
+// Tổng lưu sẵn trên order so với tổng tính lại từ order_items
+public record OrderTotalsCheckRow(
+        Long orderId,
+        Money storedSubtotal,
+        Integer storedActiveCount,
+        Integer storedCanceledCount,
+        BigDecimal actualSubtotal,
+        Long actualActiveCount,
+        Long actualCanceledCount
+) {
+    public OrderTotalsCheckRow {
+        actualSubtotal = actualSubtotal == null ? BigDecimal.ZERO : actualSubtotal;
+    }
+
+    public boolean matches() {
+        return storedSubtotal.equals(Money.of(actualSubtotal))
+                && storedActiveCount.longValue() == actualActiveCount
+                && storedCanceledCount.longValue() == actualCanceledCount;
+    }
+}
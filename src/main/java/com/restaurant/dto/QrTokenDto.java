@@ -0,0 +1,8 @@
+package com.restaurant.dto;
+
+public record QrTokenDto(
+        Long tableId,
+        String code,
+        String token,
+        int epoch
+) {}
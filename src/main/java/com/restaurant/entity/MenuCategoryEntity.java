@@ -6,6 +6,7 @@ import lombok.*;
 import java.time.Instant;
 
 @Entity
+@EntityListeners(MenuEntityListener.class)
 @Table(name = "menu_categories")
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
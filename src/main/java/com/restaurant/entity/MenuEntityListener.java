@@ -0,0 +1,29 @@
+package com.restaurant.entity;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.restaurant.service.MenuSnapshotService;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Bất kỳ thay đổi nào trên món/danh mục -> build lại snapshot menu sau commit
+@Component
+public class MenuEntityListener {
+
+    // ObjectProvider để tránh vòng phụ thuộc EntityManagerFactory <-> repository
+    private final ObjectProvider<MenuSnapshotService> menuSnapshotService;
+
+    public MenuEntityListener(ObjectProvider<MenuSnapshotService> menuSnapshotService) {
+        this.menuSnapshotService = menuSnapshotService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onMenuChanged(Object entity) {
+        menuSnapshotService.getObject().rebuildAfterCommit();
+    }
+}
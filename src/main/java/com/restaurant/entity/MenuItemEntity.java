@@ -9,6 +9,7 @@ import java.time.Instant;
 import org.hibernate.type.descriptor.jdbc.VarcharJdbcType;
 
 @Entity
+@EntityListeners(MenuEntityListener.class)
 @Table(name = "menu_items")
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
@@ -0,0 +1,67 @@
+package com.restaurant.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Số tiền cố định 2 chữ số thập phân, lưu bằng long đơn vị nhỏ nhất (1 = 0.01).
+ * Dùng cho đường tính bill/checkout thay BigDecimal: cộng/trừ/nhân không cấp phát thêm object trung gian.
+ * Quy tắc làm tròn: chỉ làm tròn 1 lần khi chuyển từ BigDecimal vào (HALF_UP về 2 số lẻ),
+ * mọi phép tính sau đó là số nguyên chính xác; tràn số -> ArithmeticException.
+ * JSON: serialize như số thập phân (VD 125000.00), giống BigDecimal trước đây.
+ */
+public record Money(long minor) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofMinor(long minor) {
+        return minor == 0 ? ZERO : new Money(minor);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    // null -> 0 (các khoản tuỳ chọn như discount/tax/service fee)
+    public static Money ofNullable(BigDecimal amount) {
+        return amount == null ? ZERO : of(amount);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minor, other.minor));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minor, other.minor));
+    }
+
+    public Money times(int qty) {
+        return ofMinor(Math.multiplyExact(minor, qty));
+    }
+
+    public Money max(Money other) {
+        return minor >= other.minor ? this : other;
+    }
+
+    public boolean isZero() {
+        return minor == 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -13,8 +13,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class OrderEntity {
 
+    // Cấp id theo block 50 (pooled) để INSERT gom được JDBC batch; MySQL không có sequence -> bảng orders_seq
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "table_id", nullable = false)
@@ -34,6 +36,22 @@ public class OrderEntity {
     @Column(name = "customer_session", length = 64)
     private String customerSession;
 
+    // Tổng lưu sẵn (denormalized), cập nhật cùng transaction với thay đổi món
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "subtotal_amount", nullable = false, precision = 12, scale = 2)
+    private Money subtotalAmount = Money.ZERO;
+
+    @Column(name = "active_item_count", nullable = false)
+    private Integer activeItemCount = 0;
+
+    @Column(name = "canceled_item_count", nullable = false)
+    private Integer canceledItemCount = 0;
+
+    // Optimistic locking: 2 thao tác cùng sửa 1 bàn/order -> thao tác commit sau bị từ chối (và retry)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
@@ -4,7 +4,6 @@ import com.restaurant.enums.ItemStatus;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 
@@ -14,8 +13,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class OrderItemEntity {
 
+    // Cấp id theo block 50 (pooled) để INSERT gom được JDBC batch; MySQL không có sequence -> bảng order_items_seq
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_id", nullable = false)
@@ -35,8 +36,10 @@ public class OrderItemEntity {
     @Column(name = "item_name_snapshot", nullable = false, length = 160)
     private String itemNameSnapshot;
 
+    // Money (long) để tiền từng dòng tính bằng số nguyên, không tạo BigDecimal mỗi dòng
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "unit_price_snapshot", nullable = false, precision = 12, scale = 2)
-    private BigDecimal unitPriceSnapshot;
+    private Money unitPriceSnapshot;
 
     @Column(nullable = false)
     private Integer qty;
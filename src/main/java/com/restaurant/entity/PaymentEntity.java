@@ -4,7 +4,6 @@ import com.restaurant.enums.PaymentMethod;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 
@@ -14,8 +13,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class PaymentEntity {
 
+    // Cấp id theo block (pooled) để INSERT payment đi chung lần flush với order/bàn lúc checkout
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_id", nullable = false, unique = true)
@@ -25,20 +26,25 @@ public class PaymentEntity {
     @JoinColumn(name = "order_id", insertable = false, updatable = false)
     private OrderEntity order;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal subtotal;
+    private Money subtotal;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "discount_amount", nullable = false, precision = 12, scale = 2)
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.ZERO;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "tax_amount", nullable = false, precision = 12, scale = 2)
-    private BigDecimal taxAmount = BigDecimal.ZERO;
+    private Money taxAmount = Money.ZERO;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "service_fee_amount", nullable = false, precision = 12, scale = 2)
-    private BigDecimal serviceFeeAmount = BigDecimal.ZERO;
+    private Money serviceFeeAmount = Money.ZERO;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 10)
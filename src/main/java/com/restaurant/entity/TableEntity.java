@@ -36,6 +36,11 @@ public class TableEntity {
     @JoinColumn(name = "current_order_id", insertable = false, updatable = false)
     private OrderEntity currentOrder;
 
+    // Optimistic locking: 2 thao tác cùng sửa 1 bàn/order -> thao tác commit sau bị từ chối (và retry)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
@@ -0,0 +1,5 @@
+package com.restaurant.enums;
+
+public enum TableTransition {
+    OPEN, REQUEST_BILL, SET_CLEANING, SET_AVAILABLE
+}
@@ -0,0 +1,8 @@
+package com.restaurant.event;
+
+import com.restaurant.dto.KitchenTicketDto;
+
+// 1 thay đổi đã áp dụng vào hàng đợi bếp trong bộ nhớ (phát khi KitchenQueue còn giữ khoá -> đúng thứ tự áp dụng).
+// previous = dòng hàng đợi đang giữ trước đó (null nếu chưa có); ticket = trạng thái mới nhất của món
+// (có thể SERVED/CANCELED nếu món vừa rời hàng đợi); removed = món bị xoá/order đã đóng/đồng bộ lại với DB.
+public record KitchenQueueChangedEvent(KitchenTicketDto previous, KitchenTicketDto ticket, boolean removed) {}
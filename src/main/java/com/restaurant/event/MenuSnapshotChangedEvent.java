@@ -0,0 +1,9 @@
+package com.restaurant.event;
+
+import com.restaurant.service.MenuSnapshot;
+
+/**
+ * Phát ra sau khi snapshot menu được thay thế.
+ * previous = null ở lần build đầu tiên.
+ */
+public record MenuSnapshotChangedEvent(MenuSnapshot previous, MenuSnapshot current) {}
@@ -0,0 +1,10 @@
+package com.restaurant.event;
+
+import java.time.Instant;
+
+// Order đã đóng (checkout), phát trong transaction và xử lý sau commit.
+// Hàng đợi bếp tự gỡ các món còn lại của order khỏi bộ nhớ, không cần đọc lại món từ DB.
+public record OrderClosedEvent(
+        Long orderId,
+        Instant closedAt
+) {}
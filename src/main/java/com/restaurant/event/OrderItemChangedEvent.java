@@ -0,0 +1,13 @@
+package com.restaurant.event;
+
+import com.restaurant.dto.KitchenTicketDto;
+import com.restaurant.enums.ItemStatus;
+
+// Trạng thái mới của 1 món sau khi thêm/sửa/đổi trạng thái/xoá (phát trong transaction, xử lý sau commit).
+// previousStatus/previousQty = trước thay đổi (null/0 nếu món mới); removed = dòng đã bị xoá khỏi order.
+public record OrderItemChangedEvent(
+        KitchenTicketDto item,
+        ItemStatus previousStatus,
+        int previousQty,
+        boolean removed
+) {}
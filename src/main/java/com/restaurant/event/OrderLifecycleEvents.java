@@ -0,0 +1,30 @@
+package com.restaurant.event;
+
+import java.math.BigDecimal;
+
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.enums.PaymentMethod;
+
+// Payload các event vòng đời order ghi vào outbox (aggregate = ORDER, aggregateId = orderId)
+public final class OrderLifecycleEvents {
+
+    public static final String AGGREGATE = "ORDER";
+
+    public static final String ORDER_SUBMITTED = "ORDER_SUBMITTED";
+    public static final String ORDER_CONFIRMED = "ORDER_CONFIRMED";
+    public static final String ITEM_STATUS_CHANGED = "ITEM_STATUS_CHANGED";
+    public static final String ORDER_CHECKED_OUT = "ORDER_CHECKED_OUT";
+
+    private OrderLifecycleEvents() {
+    }
+
+    public record OrderSubmitted(Long orderId, Long tableId, int itemCount, BigDecimal subtotal) {}
+
+    public record OrderConfirmed(Long orderId, Long tableId, int itemCount, BigDecimal subtotal) {}
+
+    public record ItemStatusChanged(Long orderId, Long tableId, Long itemId, Long menuItemId,
+                                    ItemStatus previousStatus, ItemStatus status, int qty) {}
+
+    public record OrderCheckedOut(Long orderId, Long tableId, Long paymentId,
+                                  BigDecimal totalAmount, PaymentMethod method) {}
+}
@@ -0,0 +1,19 @@
+package com.restaurant.event;
+
+/**
+ * Consumer trong process của outbox (màn hình bếp, máy in, analytics...): khai báo bean là được nhận event.
+ * Giao ít nhất 1 lần (at-least-once) -> handle phải idempotent (dựa vào message.id()).
+ * Thứ tự theo từng order = thứ tự id. Đúng với thứ tự commit vì:
+ * - mọi transaction ghi event của 1 order đều tăng version order -> không thể commit song song, bên sau retry và lấy id mới;
+ * - id cấp theo block tăng dần trong 1 instance (chạy nhiều instance thì block của mỗi instance xen nhau -> không đảm bảo).
+ * Ném exception -> event được gửi lại ở lần quét sau, các event sau của cùng order chờ đến khi event này qua
+ * hoặc bị bỏ qua sau app.outbox.max-attempts lần lỗi.
+ */
+public interface OutboxListener {
+
+    default boolean supports(String eventType) {
+        return true;
+    }
+
+    void handle(OutboxMessage message);
+}
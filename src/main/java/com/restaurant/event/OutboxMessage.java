@@ -0,0 +1,14 @@
+package com.restaurant.event;
+
+import java.time.Instant;
+
+// Event đọc từ outbox giao cho OutboxListener; payload là JSON
+public record OutboxMessage(
+        Long id,
+        String aggregateType,
+        Long aggregateId,
+        String eventType,
+        String payload,
+        Instant createdAt,
+        int attempts
+) {}
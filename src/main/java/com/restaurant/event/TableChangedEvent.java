@@ -0,0 +1,7 @@
+package com.restaurant.event;
+
+import com.restaurant.dto.TableDto;
+
+// Trạng thái mới của 1 bàn sau một transition (phát trong transaction, xử lý sau commit).
+// version = @Version của bàn sau khi flush, để bên nhận bỏ qua event cũ đến muộn.
+public record TableChangedEvent(TableDto table, long version) {}
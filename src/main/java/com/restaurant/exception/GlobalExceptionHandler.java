@@ -3,6 +3,7 @@ package com.restaurant.exception;
 import com.restaurant.dto.ActionResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -21,6 +22,23 @@ public class GlobalExceptionHandler {
                 .body(new ActionResponse(ex.getMessage()));
     }
 
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<ActionResponse> handleConcurrentUpdate(ConcurrentUpdateException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ActionResponse(ex.getMessage()));
+    }
+
+    // Body sai ràng buộc (@Valid) là lỗi của client -> 400 thay vì rơi xuống 500
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ActionResponse> handleInvalid(MethodArgumentNotValidException ex) {
+        String message = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .findFirst()
+                .orElse("Dữ liệu không hợp lệ");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ActionResponse(message));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ActionResponse> handleOther(Exception ex) {
         // Dev: bạn có thể log ex.printStackTrace() để debug
@@ -4,7 +4,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import com.restaurant.dto.MenuRowView;
 import com.restaurant.entity.MenuItemEntity;
 
 public interface MenuItemRepository extends JpaRepository<MenuItemEntity, Long> {
@@ -12,4 +14,14 @@ public interface MenuItemRepository extends JpaRepository<MenuItemEntity, Long>
     List<MenuItemEntity> findByIsAvailableTrueOrderByIdAsc();
 
     Optional<MenuItemEntity> findByIdAndIsAvailableTrue(Long id);
+
+    // Toàn bộ menu nhóm theo danh mục trong đúng 1 câu SQL (không load entity/proxy)
+    @Query("""
+            select new com.restaurant.dto.MenuRowView(
+                c.id, c.name, m.id, m.name, m.price, m.isAvailable, m.imageUrl)
+            from MenuCategoryEntity c
+            left join MenuItemEntity m on m.categoryId = c.id
+            order by c.id asc, m.id asc
+            """)
+    List<MenuRowView> findMenuRows();
 }
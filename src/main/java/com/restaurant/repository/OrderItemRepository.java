@@ -3,12 +3,31 @@ package com.restaurant.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.restaurant.dto.KitchenTicketDto;
 import com.restaurant.entity.OrderItemEntity;
+import com.restaurant.enums.ItemStatus;
 
 public interface OrderItemRepository extends JpaRepository<OrderItemEntity, Long> {
 
-    void deleteByOrderId(Long orderId);
-
     List<OrderItemEntity> findByOrderIdOrderByIdAsc(Long orderId);
+
+    // Nhiều món kèm order của chúng trong 1 câu SQL (bump hàng loạt)
+    @Query("select i from OrderItemEntity i join fetch i.order where i.id in :itemIds")
+    List<OrderItemEntity> findAllWithOrderByIdIn(@Param("itemIds") List<Long> itemIds);
+
+    // Hàng đợi bếp: món đã gửi bếp của các order ACTIVE, 1 câu SQL
+    @Query("""
+            select new com.restaurant.dto.KitchenTicketDto(
+                i.id, i.orderId, o.tableId, i.menuItemId, i.itemNameSnapshot, i.qty, i.note, i.status,
+                i.sentAt, i.cookingAt, i.readyAt, i.servedAt, i.updatedAt)
+            from OrderItemEntity i
+            join OrderEntity o on o.id = i.orderId
+            where o.status = com.restaurant.enums.OrderStatus.ACTIVE
+              and i.status in :statuses
+            order by i.sentAt asc, i.id asc
+            """)
+    List<KitchenTicketDto> findKitchenTickets(@Param("statuses") List<ItemStatus> statuses);
 }
@@ -1,11 +1,67 @@
 package com.restaurant.repository;
 
+import com.restaurant.dto.OrderLineRow;
+import com.restaurant.dto.OrderTotalsCheckRow;
 import com.restaurant.entity.OrderEntity;
 import com.restaurant.enums.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     List<OrderEntity> findByTableIdAndStatusIn(Long tableId, List<OrderStatus> statuses);
+
+    // Checkout: load + khoá (FOR UPDATE) order và bàn của nó trong 1 câu SQL
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.scope", value = "EXTENDED"))
+    @Query("select o from OrderEntity o join fetch o.table where o.id = :orderId")
+    Optional<OrderEntity> findByIdForCheckout(@Param("orderId") Long orderId);
+
+    // Order + toàn bộ món trong 1 câu SQL
+    @Query("""
+            select new com.restaurant.dto.OrderLineRow(
+                o.id, o.tableId, o.status, o.note, o.subtotalAmount,
+                i.id, i.menuItemId, i.itemNameSnapshot, i.unitPriceSnapshot, i.qty, i.note, i.status)
+            from OrderEntity o
+            left join OrderItemEntity i on i.orderId = o.id
+            where o.id = :orderId
+            order by i.id asc
+            """)
+    List<OrderLineRow> findLinesByOrderId(@Param("orderId") Long orderId);
+
+    // Order hiện tại của bàn + món, đi thẳng từ tables.current_order_id
+    @Query("""
+            select new com.restaurant.dto.OrderLineRow(
+                o.id, o.tableId, o.status, o.note, o.subtotalAmount,
+                i.id, i.menuItemId, i.itemNameSnapshot, i.unitPriceSnapshot, i.qty, i.note, i.status)
+            from TableEntity t
+            join OrderEntity o on o.id = t.currentOrderId
+            left join OrderItemEntity i on i.orderId = o.id
+            where t.id = :tableId
+            order by i.id asc
+            """)
+    List<OrderLineRow> findCurrentOrderLinesByTableId(@Param("tableId") Long tableId);
+
+    // Tính lại tổng từ order_items để đối chiếu với tổng lưu sẵn trên order
+    // (unitPriceSnapshot là Money qua converter -> cast về BigDecimal để nhân/cộng trong SQL)
+    @Query("""
+            select new com.restaurant.dto.OrderTotalsCheckRow(
+                o.id, o.subtotalAmount, o.activeItemCount, o.canceledItemCount,
+                sum(case when i.status <> com.restaurant.enums.ItemStatus.CANCELED then cast(i.unitPriceSnapshot as BigDecimal) * i.qty end),
+                count(case when i.status <> com.restaurant.enums.ItemStatus.CANCELED then 1 end),
+                count(case when i.status = com.restaurant.enums.ItemStatus.CANCELED then 1 end))
+            from OrderEntity o
+            left join OrderItemEntity i on i.orderId = o.id
+            where o.status in :statuses
+            group by o.id, o.subtotalAmount, o.activeItemCount, o.canceledItemCount
+            """)
+    List<OrderTotalsCheckRow> checkTotalsByStatusIn(@Param("statuses") List<OrderStatus> statuses);
 }
@@ -0,0 +1,34 @@
+package com.restaurant.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.restaurant.entity.OutboxEventEntity;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    // Lô event chưa gửi, theo thứ tự ghi (bỏ qua event đã lỗi quá số lần cho phép)
+    List<OutboxEventEntity> findByDispatchedAtIsNullAndAttemptsLessThanOrderByIdAsc(int maxAttempts, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEventEntity e set e.dispatchedAt = :at where e.id in :ids")
+    int markDispatched(@Param("ids") List<Long> ids, @Param("at") Instant at);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEventEntity e set e.attempts = e.attempts + 1, e.lastError = :error where e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEventEntity e where e.dispatchedAt < :before")
+    int deleteDispatchedBefore(@Param("before") Instant before);
+}
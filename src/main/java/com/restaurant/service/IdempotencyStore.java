@@ -0,0 +1,209 @@
+package com.restaurant.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.restaurant.exception.BusinessRuleException;
+import com.restaurant.exception.ConcurrentUpdateException;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Lưu kết quả theo header Idempotency-Key (trong bộ nhớ, có TTL + giới hạn số key).
+ * - Key đã xong -> trả lại đúng response cũ, không chạy lại transaction.
+ * - Key đang chạy -> request trùng chờ trên cùng CompletableFuture thay vì cùng đập vào DB.
+ * - Request lỗi -> không lưu, các request đang chờ nhận cùng lỗi, lần gửi sau được chạy lại.
+ * - Body được nhận diện bằng SHA-256 của JSON chuẩn hoá (số thập phân bỏ số 0 cuối: 10 và 10.0 là một).
+ * - Map giữ thứ tự thêm vào (= thứ tự thời gian), mọi thao tác + dọn dẹp dưới 1 khoá, mỗi lần O(1) khấu hao.
+ *   Đầy mà toàn key đang chạy -> từ chối key mới thay vì vượt giới hạn.
+ */
+@Service
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private record Entry(String fingerprint, long createdAtNanos, CompletableFuture<Object> result) {
+        boolean expired(long now, long ttlNanos) {
+            return result.isDone() && now - createdAtNanos > ttlNanos;
+        }
+    }
+
+    // Chỉ truy cập trong synchronized (entries)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final JsonMapper jsonMapper;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long waitSeconds;
+
+    public IdempotencyStore(JsonMapper jsonMapper,
+                            @Value("${app.idempotency.ttl-seconds:600}") long ttlSeconds,
+                            @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${app.idempotency.wait-seconds:30}") long waitSeconds) {
+        this.jsonMapper = jsonMapper;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.waitSeconds = waitSeconds;
+    }
+
+    /**
+     * Chạy action một lần cho mỗi (scope, key). Không có key -> chạy bình thường.
+     * request dùng để phát hiện client dùng lại key cho nội dung khác.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String key, Object request, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessRuleException(HEADER + " tối đa " + MAX_KEY_LENGTH + " ký tự");
+        }
+
+        String storeKey = scope + ":" + key;
+        Entry mine = new Entry(fingerprint(request), System.nanoTime(), new CompletableFuture<>());
+
+        Entry existing = reserve(storeKey, mine);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(mine.fingerprint())) {
+                throw new BusinessRuleException(HEADER + " đã được dùng cho một request khác");
+            }
+            return (T) await(existing.result());
+        }
+
+        try {
+            T result = action.get();
+            mine.result().complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            // Lỗi không được ghi nhớ: bỏ entry để client gửi lại được chạy thật
+            synchronized (entries) {
+                entries.remove(storeKey, mine);
+            }
+            mine.result().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.evict-millis:60000}")
+    public void evictExpired() {
+        synchronized (entries) {
+            removeExpired(System.nanoTime());
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // Trả về entry đã có (key còn hiệu lực) hoặc null nếu đã giữ chỗ cho mine
+    private Entry reserve(String storeKey, Entry mine) {
+        synchronized (entries) {
+            long now = mine.createdAtNanos();
+            Entry existing = entries.get(storeKey);
+            if (existing != null && !existing.expired(now, ttlNanos)) {
+                return existing;
+            }
+            entries.remove(storeKey);
+
+            if (entries.size() >= maxEntries) {
+                makeRoom(now);
+            }
+            if (entries.size() >= maxEntries) {
+                throw new ConcurrentUpdateException("Quá nhiều request " + HEADER + " đang xử lý, vui lòng thử lại sau");
+            }
+            entries.put(storeKey, mine);
+            return null;
+        }
+    }
+
+    // Gọi trong synchronized (entries). Đầu map là key cũ nhất -> dừng ngay khi gặp key chưa hết hạn
+    private void removeExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            if (now - e.createdAtNanos() <= ttlNanos) {
+                return;
+            }
+            if (e.result().isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    // Gọi trong synchronized (entries): dọn key hết hạn, vẫn đầy thì bỏ key đã xong cũ nhất (key đang chạy giữ lại)
+    private void makeRoom(long now) {
+        removeExpired(now);
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            if (it.next().result().isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    private String fingerprint(Object request) {
+        if (request == null) {
+            return "";
+        }
+        byte[] json = jsonMapper.writeValueAsBytes(canonical(jsonMapper.valueToTree(request)));
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Số thập phân về dạng chuẩn để 10 / 10.0 / 10.00 cho cùng fingerprint
+    private JsonNode canonical(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            for (Map.Entry<String, JsonNode> field : List.copyOf(object.properties())) {
+                object.set(field.getKey(), canonical(field.getValue()));
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, canonical(array.get(i)));
+            }
+        } else if (node.isNumber() && !node.isIntegralNumber()) {
+            return jsonMapper.getNodeFactory().numberNode(node.decimalValue().stripTrailingZeros());
+        }
+        return node;
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException | CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException | CancellationException ex) {
+            throw new ConcurrentUpdateException("Request cùng " + HEADER + " vẫn đang được xử lý, vui lòng thử lại sau");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Request bị ngắt khi chờ request cùng " + HEADER);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.restaurant.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.restaurant.dto.AllDayCountDto;
+import com.restaurant.dto.KitchenTicketDto;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.event.KitchenQueueChangedEvent;
+
+/**
+ * Bộ đếm "all-day" cho bếp: tổng qty từng món đang PENDING/COOKING trên mọi bàn.
+ * Đi theo KitchenQueueChangedEvent: mỗi thay đổi của hàng đợi bếp cộng/trừ đúng phần chênh lệch vào LongAdder
+ * của món (không khoá, không quét order). Event được phát lúc hàng đợi còn giữ khoá, theo đúng thứ tự áp dụng,
+ * nên lần nạp/đối chiếu của hàng đợi với DB cũng tới đây dưới dạng delta -> không có bước sửa riêng đè lên delta.
+ */
+@Service
+public class KitchenAllDayCounts {
+
+    private static final List<ItemStatus> COUNTED_STATUSES = List.of(ItemStatus.PENDING, ItemStatus.COOKING);
+
+    private static final class Counter {
+        private volatile String name;
+        private final LongAdder qty = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+    }
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // Chỉ duyệt theo số món trong menu đang có bộ đếm, không phụ thuộc số order đang mở
+    public List<AllDayCountDto> list() {
+        return counters.entrySet().stream()
+                .map(e -> new AllDayCountDto(e.getKey(), e.getValue().name, e.getValue().qty.sum()))
+                .filter(c -> c.qty() > 0)
+                .sorted(Comparator.comparing(AllDayCountDto::qty).reversed()
+                        .thenComparing(AllDayCountDto::menuItemId))
+                .toList();
+    }
+
+    public long get(Long menuItemId) {
+        Counter counter = counters.get(menuItemId);
+        return counter == null ? 0 : counter.qty.sum();
+    }
+
+    @EventListener
+    public void onQueueChanged(KitchenQueueChangedEvent event) {
+        KitchenTicketDto previous = event.previous();
+        KitchenTicketDto ticket = event.ticket();
+        long before = counted(previous) ? previous.qty() : 0;
+        long after = !event.removed() && counted(ticket) ? ticket.qty() : 0;
+        if (after != before) {
+            counter(ticket.menuItemId(), ticket.name()).qty.add(after - before);
+        }
+    }
+
+    private Counter counter(Long menuItemId, String name) {
+        Counter counter = counters.computeIfAbsent(menuItemId, id -> new Counter(name));
+        if (name != null && !name.equals(counter.name)) {
+            counter.name = name;
+        }
+        return counter;
+    }
+
+    private static boolean counted(KitchenTicketDto ticket) {
+        return ticket != null && ticket.qty() != null && COUNTED_STATUSES.contains(ticket.status());
+    }
+}
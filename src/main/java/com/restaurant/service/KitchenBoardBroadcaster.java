@@ -0,0 +1,48 @@
+package com.restaurant.service;
+
+import java.util.Map;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.restaurant.event.KitchenQueueChangedEvent;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Màn hình bếp realtime: snapshot hàng đợi khi kết nối, sau đó chỉ gửi món thay đổi.
+// Delta lấy từ chính KitchenQueue (cả thay đổi do đối chiếu DB) -> màn hình luôn khớp hàng đợi.
+@Service
+public class KitchenBoardBroadcaster {
+
+    private static final long TIMEOUT_MILLIS = 60 * 60 * 1000L;
+
+    private final SseBroadcaster broadcaster;
+    private final KitchenQueue kitchenQueue;
+
+    public KitchenBoardBroadcaster(JsonMapper jsonMapper, KitchenQueue kitchenQueue) {
+        this.broadcaster = new SseBroadcaster("kitchen", TIMEOUT_MILLIS, jsonMapper);
+        this.kitchenQueue = kitchenQueue;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = broadcaster.subscribe();
+        broadcaster.sendTo(emitter, "snapshot", kitchenQueue::list);
+        return emitter;
+    }
+
+    @EventListener
+    public void onQueueChanged(KitchenQueueChangedEvent event) {
+        if (event.removed()) {
+            broadcaster.broadcast("removed", Map.of("itemId", event.ticket().itemId()));
+        } else {
+            broadcaster.broadcast("ticket", event.ticket());
+        }
+    }
+
+    @Scheduled(fixedDelay = 20_000)
+    public void heartbeat() {
+        broadcaster.heartbeat();
+    }
+}
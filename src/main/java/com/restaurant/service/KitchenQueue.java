@@ -0,0 +1,216 @@
+package com.restaurant.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.restaurant.dto.KitchenTicketDto;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.event.KitchenQueueChangedEvent;
+import com.restaurant.event.OrderClosedEvent;
+import com.restaurant.event.OrderItemChangedEvent;
+import com.restaurant.repository.OrderItemRepository;
+
+/**
+ * Hàng đợi bếp trong bộ nhớ: các món PENDING/COOKING/READY của order ACTIVE, xếp theo sentAt.
+ * - Nạp từ DB khi app khởi động, sau đó cập nhật từ OrderItemChangedEvent sau commit
+ *   (event đến trước/trong lúc nạp vẫn được áp dụng, lần nạp không ghi đè món đã có event mới hơn).
+ * - Order checkout (OrderClosedEvent sau commit): gỡ hết món còn lại của order ngay trong bộ nhớ, không đọc DB.
+ * - Định kỳ đối chiếu với DB (sửa tay, event bị mất...).
+ * - Mọi thay đổi thực sự trên hàng đợi (kể cả do đối chiếu) phát KitchenQueueChangedEvent cho màn hình bếp/bộ đếm.
+ */
+@Service
+public class KitchenQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenQueue.class);
+
+    static final List<ItemStatus> QUEUED_STATUSES = List.of(ItemStatus.PENDING, ItemStatus.COOKING, ItemStatus.READY);
+
+    // Khoá sắp xếp: sentAt (món chưa có sentAt xếp cuối), trùng thì theo itemId
+    private record Position(LocalDateTime sentAt, Long itemId) {}
+
+    // Event gần nhất đã nhận của 1 món: updatedAt để bỏ event cũ đến muộn, receivedAt để đối chiếu DB
+    private record Seen(Instant updatedAt, Instant receivedAt) {}
+
+    private static final Comparator<Position> ORDER = Comparator
+            .comparing(Position::sentAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Position::itemId);
+
+    private final OrderItemRepository orderItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NavigableMap<Position, KitchenTicketDto> queue = new ConcurrentSkipListMap<>(ORDER);
+    private final Map<Long, Position> positions = new HashMap<>();
+    private final Map<Long, Seen> seen = new HashMap<>();
+    private volatile boolean loaded;
+
+    public KitchenQueue(OrderItemRepository orderItemRepository, ApplicationEventPublisher eventPublisher) {
+        this.orderItemRepository = orderItemRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Đọc không khoá: skip list trả về đúng thứ tự sentAt
+    public List<KitchenTicketDto> list() {
+        return List.copyOf(queue.values());
+    }
+
+    public List<KitchenTicketDto> list(ItemStatus status) {
+        return queue.values().stream().filter(t -> t.status() == status).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        sync();
+        loaded = true;
+        log.info("Kitchen queue nạp {} món từ DB", size());
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(OrderItemChangedEvent event) {
+        KitchenTicketDto ticket = event.item();
+        synchronized (this) {
+            Seen last = seen.get(ticket.itemId());
+            // Event đến muộn của transaction cũ hơn -> bỏ qua
+            if (last != null && isAfter(last.updatedAt(), ticket.updatedAt())) {
+                return;
+            }
+            seen.put(ticket.itemId(), new Seen(ticket.updatedAt(), Instant.now()));
+
+            if (event.removed() || !QUEUED_STATUSES.contains(ticket.status())) {
+                KitchenTicketDto previous = remove(ticket.itemId());
+                if (previous != null) {
+                    publish(previous, ticket, event.removed());
+                }
+            } else {
+                publish(put(ticket), ticket, false);
+            }
+        }
+    }
+
+    // Order đã đóng: món chưa phục vụ rời màn hình bếp. Ghi nhận như 1 event của từng món (mốc closedAt)
+    // để event cũ đến muộn hay lần đối chiếu đọc DB trước commit không đưa món trở lại
+    @TransactionalEventListener
+    public void onOrderClosed(OrderClosedEvent event) {
+        synchronized (this) {
+            for (KitchenTicketDto ticket : List.copyOf(queue.values())) {
+                if (!ticket.orderId().equals(event.orderId())) {
+                    continue;
+                }
+                seen.put(ticket.itemId(), new Seen(event.closedAt(), Instant.now()));
+                remove(ticket.itemId());
+                publish(ticket, ticket, true);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.kitchen.reconcile-millis:60000}")
+    public void reconcile() {
+        if (!loaded) {
+            return;
+        }
+        int drift = sync();
+        if (drift > 0) {
+            log.warn("Kitchen queue lệch {} món so với DB, đã đồng bộ lại", drift);
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    // Đưa hàng đợi về đúng DB. Món có event nhận sau lúc bắt đầu đọc DB giữ nguyên bản trong bộ nhớ:
+    // event đó mới bằng hoặc hơn dòng DB vừa đọc. Món có event nhận trước lúc đọc thì DB đã phản ánh.
+    private int sync() {
+        Instant readAt = Instant.now();
+        List<KitchenTicketDto> rows = orderItemRepository.findKitchenTickets(QUEUED_STATUSES);
+        Map<Long, KitchenTicketDto> fresh = new HashMap<>();
+        rows.forEach(t -> fresh.put(t.itemId(), t));
+        int drift = 0;
+
+        synchronized (this) {
+            for (KitchenTicketDto t : rows) {
+                if (seenSince(t.itemId(), readAt)) {
+                    continue;
+                }
+                KitchenTicketDto current = get(t.itemId());
+                if (current == null || !sameLine(current, t)) {
+                    put(t);
+                    publish(current, t, false);
+                    drift++;
+                }
+            }
+            for (Long itemId : List.copyOf(positions.keySet())) {
+                if (!fresh.containsKey(itemId) && !seenSince(itemId, readAt)) {
+                    KitchenTicketDto previous = remove(itemId);
+                    publish(previous, previous, true);
+                    drift++;
+                }
+            }
+            // Event nhận trước lúc đọc đã nằm trong kết quả DB, không cần giữ nữa
+            seen.values().removeIf(s -> s.receivedAt().isBefore(readAt));
+        }
+        return drift;
+    }
+
+    private boolean seenSince(Long itemId, Instant readAt) {
+        Seen last = seen.get(itemId);
+        return last != null && !last.receivedAt().isBefore(readAt);
+    }
+
+    // Gọi trong synchronized(this): listener nhận event theo đúng thứ tự thay đổi
+    private void publish(KitchenTicketDto previous, KitchenTicketDto ticket, boolean removed) {
+        eventPublisher.publishEvent(new KitchenQueueChangedEvent(previous, ticket, removed));
+    }
+
+    private KitchenTicketDto get(Long itemId) {
+        Position position = positions.get(itemId);
+        return position == null ? null : queue.get(position);
+    }
+
+    // Gọi trong synchronized(this); trả về dòng cũ (null nếu chưa có)
+    private KitchenTicketDto put(KitchenTicketDto ticket) {
+        KitchenTicketDto previous = remove(ticket.itemId());
+        Position position = new Position(ticket.sentAt(), ticket.itemId());
+        positions.put(ticket.itemId(), position);
+        queue.put(position, ticket);
+        return previous;
+    }
+
+    private KitchenTicketDto remove(Long itemId) {
+        Position position = positions.remove(itemId);
+        return position == null ? null : queue.remove(position);
+    }
+
+    // Cột thời gian trong DB có thể kém chính xác hơn giá trị trong bộ nhớ: so theo giây để không báo lệch giả
+    private static boolean sameLine(KitchenTicketDto a, KitchenTicketDto b) {
+        return truncated(a).equals(truncated(b));
+    }
+
+    private static KitchenTicketDto truncated(KitchenTicketDto t) {
+        return new KitchenTicketDto(t.itemId(), t.orderId(), t.tableId(), t.menuItemId(), t.name(), t.qty(), t.note(),
+                t.status(), seconds(t.sentAt()), seconds(t.cookingAt()), seconds(t.readyAt()), seconds(t.servedAt()),
+                t.updatedAt() == null ? null : t.updatedAt().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    private static LocalDateTime seconds(LocalDateTime time) {
+        return time == null ? null : time.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static boolean isAfter(Instant current, Instant incoming) {
+        return current != null && incoming != null && current.isAfter(incoming);
+    }
+}
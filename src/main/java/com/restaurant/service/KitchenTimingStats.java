@@ -0,0 +1,94 @@
+package com.restaurant.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.restaurant.dto.KitchenTicketDto;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.event.OrderItemChangedEvent;
+
+/**
+ * Thời gian phục vụ của bếp đo từ timestamp vòng đời món (ghi sau commit, chỉ tính chuyển trạng thái thật):
+ * - queue: sentAt -> cookingAt (chờ bếp nhận)
+ * - cook:  cookingAt -> readyAt (nấu)
+ * - pass:  readyAt -> servedAt (chờ bưng ra)
+ * Mỗi công đoạn có histogram theo món và theo giờ trong ngày (giờ lúc món chuyển trạng thái).
+ */
+@Service
+public class KitchenTimingStats {
+
+    public enum Stage { QUEUE, COOK, PASS }
+
+    private record Key(Stage stage, Long menuItemId) {}
+
+    private record HourKey(Stage stage, int hour) {}
+
+    public record MenuItemTiming(Long menuItemId, String name, LatencyHistogram.Summary timing) {}
+
+    public record StageReport(Map<Long, MenuItemTiming> byMenuItem, Map<Integer, LatencyHistogram.Summary> byHour) {}
+
+    private final Map<Key, LatencyHistogram> byMenuItem = new ConcurrentHashMap<>();
+    private final Map<HourKey, LatencyHistogram> byHour = new ConcurrentHashMap<>();
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener
+    public void onItemChanged(OrderItemChangedEvent event) {
+        KitchenTicketDto item = event.item();
+        if (event.removed() || item.status() == event.previousStatus()) {
+            return;
+        }
+        switch (item.status()) {
+            case COOKING -> record(Stage.QUEUE, item, item.sentAt(), item.cookingAt());
+            case READY -> record(Stage.COOK, item, item.cookingAt(), item.readyAt());
+            case SERVED -> record(Stage.PASS, item, item.readyAt(), item.servedAt());
+            default -> { }
+        }
+    }
+
+    public Map<Stage, StageReport> report() {
+        Map<Stage, StageReport> report = new TreeMap<>();
+        for (Stage stage : Stage.values()) {
+            report.put(stage, report(stage));
+        }
+        return report;
+    }
+
+    public StageReport report(Stage stage) {
+        Map<Long, MenuItemTiming> items = new TreeMap<>();
+        byMenuItem.forEach((key, histogram) -> {
+            if (key.stage() == stage) {
+                items.put(key.menuItemId(),
+                        new MenuItemTiming(key.menuItemId(), names.get(key.menuItemId()), histogram.summary()));
+            }
+        });
+        Map<Integer, LatencyHistogram.Summary> hours = new TreeMap<>();
+        byHour.forEach((key, histogram) -> {
+            if (key.stage() == stage) {
+                hours.put(key.hour(), histogram.summary());
+            }
+        });
+        return new StageReport(items, hours);
+    }
+
+    public void reset() {
+        byMenuItem.values().forEach(LatencyHistogram::reset);
+        byHour.values().forEach(LatencyHistogram::reset);
+    }
+
+    private void record(Stage stage, KitchenTicketDto item, LocalDateTime start, LocalDateTime end) {
+        // Món bỏ qua công đoạn trước (VD: thêm thẳng rồi nhảy trạng thái) -> không có mốc bắt đầu
+        if (start == null || end == null) {
+            return;
+        }
+        long millis = Duration.between(start, end).toMillis();
+        names.put(item.menuItemId(), item.name());
+        byMenuItem.computeIfAbsent(new Key(stage, item.menuItemId()), k -> new LatencyHistogram()).record(millis);
+        byHour.computeIfAbsent(new HourKey(stage, end.getHour()), k -> new LatencyHistogram()).record(millis);
+    }
+}
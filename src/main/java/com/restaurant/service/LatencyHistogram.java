@@ -0,0 +1,84 @@
+package com.restaurant.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram độ trễ gọn nhẹ: bucket theo thang log (mỗi bucket rộng hơn bucket trước ~10%),
+ * đơn vị mili giây, từ 1ms đến ~1 ngày -> percentile sai số tối đa ~10%, bộ nhớ cố định (~200 bucket), ghi không khoá.
+ */
+public final class LatencyHistogram {
+
+    private static final double GROWTH = 1.1;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final long MAX_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final int BUCKETS = (int) Math.ceil(Math.log(MAX_MILLIS) / LOG_GROWTH) + 2;
+
+    // Giá trị trả ra theo giây cho dễ đọc
+    public record Summary(long count, double meanSeconds, double p50Seconds, double p95Seconds,
+                          double p99Seconds, double maxSeconds) {}
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public Summary summary() {
+        long total = count.sum();
+        if (total == 0) {
+            return new Summary(0, 0, 0, 0, 0, 0);
+        }
+        long maxValue = max.get();
+        return new Summary(total, seconds((double) sum.sum() / total),
+                seconds(percentile(0.50, total, maxValue)), seconds(percentile(0.95, total, maxValue)),
+                seconds(percentile(0.99, total, maxValue)), seconds(maxValue));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    // Trả về cận trên của bucket chứa percentile (không vượt quá max đã thấy)
+    private long percentile(double quantile, long total, long maxValue) {
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    // bucket 0 = 0ms; bucket i >= 1 chứa (GROWTH^(i-2), GROWTH^(i-1)] ms
+    private static int bucketOf(long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(Math.log(millis) / LOG_GROWTH) + 1;
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0 : (long) Math.ceil(Math.pow(GROWTH, bucket - 1));
+    }
+
+    private static double seconds(double millis) {
+        return Math.round(millis) / 1000.0;
+    }
+}
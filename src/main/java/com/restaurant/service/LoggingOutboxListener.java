@@ -0,0 +1,21 @@
+package com.restaurant.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.restaurant.event.OutboxListener;
+import com.restaurant.event.OutboxMessage;
+
+// Listener mẫu: ghi log event outbox (bật DEBUG cho class này để xem)
+@Component
+public class LoggingOutboxListener implements OutboxListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxListener.class);
+
+    @Override
+    public void handle(OutboxMessage message) {
+        log.debug("Outbox #{} {} {}={} {}", message.id(), message.eventType(),
+                message.aggregateType(), message.aggregateId(), message.payload());
+    }
+}
@@ -0,0 +1,80 @@
+package com.restaurant.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.restaurant.dto.MenuAvailabilityDelta;
+import com.restaurant.dto.PublicMenuItemDto;
+import com.restaurant.event.MenuSnapshotChangedEvent;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Đẩy thay đổi còn/hết món ("86") xuống trang menu của khách qua SSE
+@Service
+public class MenuAvailabilityBroadcaster {
+
+    private static final long TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private final SseBroadcaster broadcaster;
+    private final MenuSnapshotService menuSnapshotService;
+
+    public MenuAvailabilityBroadcaster(JsonMapper jsonMapper, MenuSnapshotService menuSnapshotService) {
+        this.broadcaster = new SseBroadcaster("menu", TIMEOUT_MILLIS, jsonMapper);
+        this.menuSnapshotService = menuSnapshotService;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = broadcaster.subscribe();
+        // Cho client biết version hiện tại: lệch version -> tải lại /menu
+        broadcaster.sendTo(emitter, "menu-version", Map.of("version", menuSnapshotService.current().version()));
+        return emitter;
+    }
+
+    @EventListener
+    public void onMenuChanged(MenuSnapshotChangedEvent event) {
+        if (event.previous() == null) {
+            return;
+        }
+
+        List<MenuAvailabilityDelta> deltas = diff(event.previous().items(), event.current().items());
+        if (!deltas.isEmpty()) {
+            broadcaster.broadcast("availability", deltas);
+        }
+    }
+
+    @Scheduled(fixedDelay = 20_000)
+    public void heartbeat() {
+        broadcaster.heartbeat();
+    }
+
+    private static List<MenuAvailabilityDelta> diff(List<PublicMenuItemDto> before, List<PublicMenuItemDto> after) {
+        Map<Long, Boolean> old = before.stream()
+                .collect(Collectors.toMap(PublicMenuItemDto::id, m -> Boolean.TRUE.equals(m.isAvailable())));
+        Map<Long, PublicMenuItemDto> now = after.stream()
+                .collect(Collectors.toMap(PublicMenuItemDto::id, Function.identity()));
+
+        List<MenuAvailabilityDelta> deltas = new ArrayList<>();
+        for (PublicMenuItemDto item : after) {
+            boolean available = Boolean.TRUE.equals(item.isAvailable());
+            if (!Objects.equals(old.get(item.id()), available)) {
+                deltas.add(new MenuAvailabilityDelta(item.id(), available));
+            }
+        }
+        // Món bị xoá khỏi menu -> coi như hết
+        for (Long id : old.keySet()) {
+            if (!now.containsKey(id) && old.get(id)) {
+                deltas.add(new MenuAvailabilityDelta(id, false));
+            }
+        }
+        return deltas;
+    }
+}
@@ -0,0 +1,94 @@
+package com.restaurant.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Service;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Render JSON menu public một lần cho mỗi version snapshot,
+ * giữ sẵn bản identity + gzip và ETag (strong, theo hash nội dung).
+ * Hai bản khác byte nên mỗi bản có ETag riêng (bản gzip thêm hậu tố "-gzip").
+ */
+@Service
+public class MenuPayloadService {
+
+    public record MenuPayload(long version, String etag, String gzipEtag, byte[] identity, byte[] gzip) {
+
+        public String etag(boolean gzipped) {
+            return gzipped ? gzipEtag : etag;
+        }
+
+        // If-None-Match có thể chứa nhiều ETag, "*" hoặc dạng weak W/"..."
+        public boolean matches(String ifNoneMatch, boolean gzipped) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag(gzipped))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final MenuSnapshotService menuSnapshotService;
+    private final JsonMapper jsonMapper;
+    private final AtomicReference<MenuPayload> cached = new AtomicReference<>();
+
+    public MenuPayloadService(MenuSnapshotService menuSnapshotService, JsonMapper jsonMapper) {
+        this.menuSnapshotService = menuSnapshotService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    public MenuPayload current() {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        MenuPayload payload = cached.get();
+        if (payload != null && payload.version() >= snapshot.version()) {
+            return payload;
+        }
+
+        MenuPayload rendered = render(snapshot);
+        // Không ghi đè bản mới hơn nếu 2 request render song song
+        return cached.accumulateAndGet(rendered,
+                (old, next) -> old != null && old.version() >= next.version() ? old : next);
+    }
+
+    private MenuPayload render(MenuSnapshot snapshot) {
+        byte[] identity = jsonMapper.writeValueAsBytes(snapshot.items());
+        String hash = hashOf(identity);
+        return new MenuPayload(snapshot.version(), "\"" + hash + "\"", "\"" + hash + "-gzip\"", identity, gzip(identity));
+    }
+
+    private static String hashOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,198 @@
+package com.restaurant.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.restaurant.dto.MenuCategoryDto;
+import com.restaurant.dto.PublicMenuItemDto;
+import com.restaurant.event.MenuSnapshotChangedEvent;
+
+/**
+ * Index tìm kiếm menu trong bộ nhớ: bỏ dấu tiếng Việt ("Phở" -> "pho"),
+ * match theo token + prefix trên tên món và tên danh mục.
+ * Cập nhật incremental theo diff giữa 2 snapshot menu.
+ */
+@Service
+public class MenuSearchIndex {
+
+    private record Entry(PublicMenuItemDto item, String categoryName, String foldedName,
+                         List<String> nameTokens, List<String> categoryTokens) {}
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> nameIndex = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> categoryIndex = new ConcurrentSkipListMap<>();
+
+    public MenuSearchIndex(MenuSnapshotService menuSnapshotService) {
+        this.menuSnapshotService = menuSnapshotService;
+    }
+
+    public List<PublicMenuItemDto> search(String query, int limit) {
+        // Đảm bảo snapshot (và index) đã được build
+        menuSnapshotService.current();
+
+        String foldedQuery = fold(query);
+        List<String> queryTokens = tokenize(foldedQuery);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // AND giữa các token: món phải match mọi token của query
+        Map<Long, Integer> scores = null;
+        for (String token : queryTokens) {
+            Map<Long, Integer> tokenScores = new HashMap<>();
+            collect(nameIndex, token, 10, 6, tokenScores);
+            collect(categoryIndex, token, 4, 2, tokenScores);
+
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+                    e.setValue(e.getValue() + tokenScores.get(e.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Entry> hits = new ArrayList<>(scores.size());
+        Map<Entry, Integer> finalScores = new HashMap<>();
+        for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+            Entry entry = entries.get(e.getKey());
+            if (entry == null) {
+                continue;
+            }
+            int score = e.getValue();
+            if (entry.foldedName().startsWith(foldedQuery)) {
+                score += 5;
+            }
+            if (Boolean.TRUE.equals(entry.item().isAvailable())) {
+                score += 1;
+            }
+            finalScores.put(entry, score);
+            hits.add(entry);
+        }
+
+        hits.sort(Comparator.<Entry>comparingInt(finalScores::get).reversed()
+                .thenComparingInt(x -> x.foldedName().length())
+                .thenComparing(x -> x.item().id()));
+
+        return hits.stream().limit(limit).map(Entry::item).toList();
+    }
+
+    @EventListener
+    public void onMenuChanged(MenuSnapshotChangedEvent event) {
+        Map<Long, String> categoryNames = event.current().categories().stream()
+                .collect(Collectors.toMap(MenuCategoryDto::id, MenuCategoryDto::name));
+
+        Set<Long> currentIds = event.current().items().stream()
+                .map(PublicMenuItemDto::id)
+                .collect(Collectors.toSet());
+
+        // Xoá món không còn trong menu
+        for (Long id : List.copyOf(entries.keySet())) {
+            if (!currentIds.contains(id)) {
+                remove(entries.remove(id));
+            }
+        }
+
+        // Thêm mới / cập nhật món đã đổi (tên, danh mục, giá, trạng thái...)
+        for (PublicMenuItemDto item : event.current().items()) {
+            String categoryName = categoryNames.getOrDefault(item.categoryId(), "");
+            Entry old = entries.get(item.id());
+            if (old != null && old.item().equals(item) && Objects.equals(old.categoryName(), categoryName)) {
+                continue;
+            }
+            Entry next = toEntry(item, categoryName);
+            if (old != null) {
+                remove(old);
+            }
+            entries.put(item.id(), next);
+            add(next);
+        }
+    }
+
+    // Bỏ dấu + lowercase, ký tự không phải chữ/số -> khoảng trắng
+    static String fold(String s) {
+        if (s == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(s, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                sb.append('d');
+            } else if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            } else {
+                sb.append(' ');
+            }
+        }
+        return sb.toString().trim().replaceAll("\\s+", " ");
+    }
+
+    private static List<String> tokenize(String folded) {
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        return List.of(folded.split(" ")).stream().distinct().toList();
+    }
+
+    private static Entry toEntry(PublicMenuItemDto item, String categoryName) {
+        String foldedName = fold(item.name());
+        return new Entry(item, categoryName, foldedName, tokenize(foldedName), tokenize(fold(categoryName)));
+    }
+
+    private static void collect(ConcurrentSkipListMap<String, Set<Long>> index, String token,
+                                int exactScore, int prefixScore, Map<Long, Integer> out) {
+        NavigableMap<String, Set<Long>> range = index.subMap(token, true, token + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Set<Long>> e : range.entrySet()) {
+            int score = e.getKey().equals(token) ? exactScore : prefixScore;
+            for (Long id : e.getValue()) {
+                out.merge(id, score, Math::max);
+            }
+        }
+    }
+
+    private void add(Entry entry) {
+        Long id = entry.item().id();
+        entry.nameTokens().forEach(t -> nameIndex.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(id));
+        entry.categoryTokens().forEach(t -> categoryIndex.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+
+    private void remove(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        Long id = entry.item().id();
+        entry.nameTokens().forEach(t -> unindex(nameIndex, t, id));
+        entry.categoryTokens().forEach(t -> unindex(categoryIndex, t, id));
+    }
+
+    private static void unindex(ConcurrentSkipListMap<String, Set<Long>> index, String token, Long id) {
+        index.computeIfPresent(token, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
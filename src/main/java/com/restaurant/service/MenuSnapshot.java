@@ -0,0 +1,25 @@
+package com.restaurant.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.restaurant.dto.MenuCategoryDto;
+import com.restaurant.dto.PublicMenuItemDto;
+
+/**
+ * Ảnh chụp (immutable) của menu tại một version.
+ * Mỗi lần menu thay đổi sẽ build ra snapshot mới và thay thế nguyên khối.
+ */
+public record MenuSnapshot(
+        long version,
+        Instant builtAt,
+        List<PublicMenuItemDto> items,
+        List<PublicMenuItemDto> availableItems,
+        List<MenuCategoryDto> categories
+) {
+    public MenuSnapshot {
+        items = List.copyOf(items);
+        availableItems = List.copyOf(availableItems);
+        categories = List.copyOf(categories);
+    }
+}
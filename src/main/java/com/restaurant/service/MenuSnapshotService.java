@@ -0,0 +1,112 @@
+package com.restaurant.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.restaurant.dto.MenuCategoryDto;
+import com.restaurant.dto.MenuRowView;
+import com.restaurant.dto.PublicMenuItemDto;
+import com.restaurant.event.MenuSnapshotChangedEvent;
+import com.restaurant.repository.MenuItemRepository;
+
+@Service
+public class MenuSnapshotService {
+
+    private final MenuItemRepository menuItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<MenuSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versionSeq = new AtomicLong();
+    private final Object rebuildLock = new Object();
+
+    public MenuSnapshotService(MenuItemRepository menuItemRepository,
+                               ApplicationEventPublisher eventPublisher) {
+        this.menuItemRepository = menuItemRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Đọc snapshot hiện tại (build lần đầu nếu chưa có)
+    public MenuSnapshot current() {
+        MenuSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (rebuildLock) {
+            snapshot = current.get();
+            return snapshot != null ? snapshot : rebuild();
+        }
+    }
+
+    // Build lại toàn bộ menu từ DB (1 query projection) rồi swap atomically
+    public MenuSnapshot rebuild() {
+        synchronized (rebuildLock) {
+            Map<Long, MenuCategoryDto> categories = new LinkedHashMap<>();
+            List<PublicMenuItemDto> items = new ArrayList<>();
+
+            for (MenuRowView row : menuItemRepository.findMenuRows()) {
+                MenuCategoryDto category = categories.computeIfAbsent(row.categoryId(),
+                        id -> new MenuCategoryDto(id, row.categoryName(), new ArrayList<>()));
+                if (row.itemId() == null) {
+                    continue;
+                }
+                PublicMenuItemDto item = new PublicMenuItemDto(
+                        row.itemId(),
+                        row.categoryId(),
+                        row.itemName(),
+                        row.price(),
+                        row.isAvailable(),
+                        row.imageUrl()
+                );
+                category.items().add(item);
+                items.add(item);
+            }
+            items.sort(Comparator.comparing(PublicMenuItemDto::id));
+
+            List<PublicMenuItemDto> available = items.stream()
+                    .filter(m -> Boolean.TRUE.equals(m.isAvailable()))
+                    .toList();
+
+            List<MenuCategoryDto> grouped = categories.values().stream()
+                    .map(c -> new MenuCategoryDto(c.id(), c.name(), List.copyOf(c.items())))
+                    .toList();
+
+            MenuSnapshot next = new MenuSnapshot(versionSeq.incrementAndGet(), Instant.now(), items, available, grouped);
+            MenuSnapshot previous = current.getAndSet(next);
+
+            eventPublisher.publishEvent(new MenuSnapshotChangedEvent(previous, next));
+            return next;
+        }
+    }
+
+    // Gọi từ entity listener: chỉ rebuild sau khi transaction commit (gộp nhiều thay đổi trong 1 tx)
+    public void rebuildAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(rebuildLock)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(rebuildLock, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(rebuildLock);
+                if (status == STATUS_COMMITTED) {
+                    rebuild();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package com.restaurant.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.restaurant.dto.OrderLineRow;
+import com.restaurant.entity.Money;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.enums.OrderStatus;
+
+/**
+ * Tách dữ liệu nóng/lạnh: chuyển order COMPLETED/CANCELED cũ (kèm order_items, payments)
+ * sang các bảng *_archive để bảng live chỉ còn order đang phục vụ + lịch sử gần.
+ * - Chạy theo chunk, mỗi chunk 1 transaction (copy rồi xoá) -> dừng giữa chừng thì lần sau chạy tiếp.
+ * - Đọc order đã archive: OrderService tự fallback sang bảng archive khi bảng live không có.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    // Cột được copy sang bảng archive, ghi rõ tên ở cả INSERT lẫn SELECT: cột thêm vào sai vị trí
+    // hoặc chỉ ở 1 bảng sẽ làm job lỗi rõ ràng thay vì âm thầm đẩy dữ liệu sang cột khác
+    private static final Map<String, String> ARCHIVED_COLUMNS = Map.of(
+            "orders", """
+                    id, table_id, status, note, customer_session, subtotal_amount, active_item_count,
+                    canceled_item_count, version, created_at, confirmed_at, completed_at, canceled_at,
+                    created_by_user_id, confirmed_by_user_id""",
+            "order_items", """
+                    id, order_id, menu_item_id, item_name_snapshot, unit_price_snapshot, qty, note, status,
+                    sent_at, cooking_at, ready_at, served_at, canceled_at, canceled_reason, created_at, updated_at""",
+            "payments", """
+                    id, order_id, subtotal, discount_amount, tax_amount, service_fee_amount, total_amount,
+                    method, paid_at, cashier_user_id, created_at""");
+
+    private final JdbcClient jdbcClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int ageDays;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    public OrderArchiveService(JdbcClient jdbcClient,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.archive.age-days:90}") int ageDays,
+                               @Value("${app.archive.chunk-size:500}") int chunkSize,
+                               @Value("${app.archive.max-chunks-per-run:200}") int maxChunksPerRun) {
+        this.jdbcClient = jdbcClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ageDays = ageDays;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+    }
+
+    // Mặc định 3h sáng (ngoài giờ phục vụ)
+    @Scheduled(cron = "${app.archive.cron:0 0 3 * * *}")
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(ageDays);
+        int archived = 0;
+
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived += moved;
+        }
+
+        if (archived > 0) {
+            log.info("Archive: chuyển {} order hoàn tất trước {} sang bảng archive", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        // Khoá các order được chọn để không đụng thao tác đang chạy trên chúng.
+        // Mỗi nhánh OR khớp 1 index (status, completed_at) / (status, canceled_at) -> range scan, không quét bảng
+        List<Long> ids = jdbcClient.sql("""
+                        SELECT o.id FROM orders o
+                        WHERE ((o.status = :completed AND o.completed_at < :cutoff)
+                            OR (o.status = :canceled AND o.canceled_at < :cutoff))
+                          AND NOT EXISTS (SELECT 1 FROM tables t WHERE t.current_order_id = o.id)
+                        ORDER BY o.id
+                        LIMIT :limit
+                        FOR UPDATE SKIP LOCKED
+                        """)
+                .param("completed", OrderStatus.COMPLETED.name())
+                .param("canceled", OrderStatus.CANCELED.name())
+                .param("cutoff", cutoff)
+                .param("limit", chunkSize)
+                .query(Long.class)
+                .list();
+
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Con trước, cha sau khi xoá (FK order_items/payments -> orders)
+        copyAndDelete("payments", "order_id", ids);
+        copyAndDelete("order_items", "order_id", ids);
+        copyAndDelete("orders", "id", ids);
+        return ids.size();
+    }
+
+    private void copyAndDelete(String table, String keyColumn, List<Long> ids) {
+        String columns = ARCHIVED_COLUMNS.get(table);
+        jdbcClient.sql("INSERT INTO " + table + "_archive (" + columns + ") SELECT " + columns
+                        + " FROM " + table + " WHERE " + keyColumn + " IN (:ids)")
+                .param("ids", ids)
+                .update();
+        jdbcClient.sql("DELETE FROM " + table + " WHERE " + keyColumn + " IN (:ids)")
+                .param("ids", ids)
+                .update();
+    }
+
+    // Cùng dạng với OrderRepository.findLinesByOrderId nhưng đọc từ bảng archive (rỗng nếu không có)
+    public List<OrderLineRow> findArchivedLines(Long orderId) {
+        return jdbcClient.sql("""
+                        SELECT o.id AS order_id, o.table_id, o.status AS order_status, o.note AS order_note,
+                               o.subtotal_amount, i.id AS item_id, i.menu_item_id, i.item_name_snapshot,
+                               i.unit_price_snapshot, i.qty, i.note AS item_note, i.status AS item_status
+                        FROM orders_archive o
+                        LEFT JOIN order_items_archive i ON i.order_id = o.id
+                        WHERE o.id = :orderId
+                        ORDER BY i.id
+                        """)
+                .param("orderId", orderId)
+                .query((rs, rowNum) -> new OrderLineRow(
+                        rs.getLong("order_id"),
+                        rs.getLong("table_id"),
+                        OrderStatus.valueOf(rs.getString("order_status")),
+                        rs.getString("order_note"),
+                        Money.of(rs.getBigDecimal("subtotal_amount")),
+                        rs.getObject("item_id", Long.class),
+                        rs.getObject("menu_item_id", Long.class),
+                        rs.getString("item_name_snapshot"),
+                        moneyOrNull(rs.getBigDecimal("unit_price_snapshot")),
+                        rs.getObject("qty", Integer.class),
+                        rs.getString("item_note"),
+                        rs.getString("item_status") == null ? null : ItemStatus.valueOf(rs.getString("item_status"))
+                ))
+                .list();
+    }
+
+    // LEFT JOIN: order không có món -> cột món null
+    private static Money moneyOrNull(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+
+    // Trạng thái của order đã archive (rỗng nếu order không nằm trong bảng archive)
+    public Optional<OrderStatus> findArchivedStatus(Long orderId) {
+        return jdbcClient.sql("SELECT status FROM orders_archive WHERE id = :orderId")
+                .param("orderId", orderId)
+                .query(String.class)
+                .optional()
+                .map(OrderStatus::valueOf);
+    }
+}
@@ -0,0 +1,202 @@
+package com.restaurant.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Service;
+
+import com.restaurant.dto.OrderHistoryPageDto;
+import com.restaurant.dto.OrderHistoryRowDto;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.PaymentMethod;
+import com.restaurant.exception.BusinessRuleException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Lịch sử order cho quản lý: lọc theo bàn/trạng thái/phương thức thanh toán/khoảng thời gian,
+ * phân trang keyset trên (created_at, id) giảm dần thay vì OFFSET
+ * -> trang thứ 1000 vẫn chỉ đọc limit+1 dòng theo index, không quét bỏ các trang trước.
+ * Chỉ ghép điều kiện có giá trị vào JPQL để MySQL dùng đúng index.
+ * Order đã archive (OrderArchiveService) vẫn nằm trong lịch sử: bảng live và bảng archive
+ * cùng được seek theo cursor (mỗi bên tối đa limit+1 dòng) rồi trộn theo (created_at, id).
+ * Hai bên chồng lấn nhau theo created_at (archive xét theo lúc hoàn tất) nên không thể đọc nối tiếp.
+ */
+@Service
+public class OrderHistoryService {
+
+    public static final int MAX_LIMIT = 200;
+
+    public record Filter(Long tableId, OrderStatus status, PaymentMethod method, Instant from, Instant to) {}
+
+    private record Cursor(Instant createdAt, Long id) {}
+
+    private static final Comparator<OrderHistoryRowDto> NEWEST_FIRST = Comparator
+            .comparing(OrderHistoryRowDto::createdAt)
+            .thenComparing(OrderHistoryRowDto::orderId)
+            .reversed();
+
+    private final EntityManager em;
+    private final JdbcClient jdbcClient;
+
+    public OrderHistoryService(EntityManager em, JdbcClient jdbcClient) {
+        this.em = em;
+        this.jdbcClient = jdbcClient;
+    }
+
+    public OrderHistoryPageDto findHistory(Filter filter, String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_LIMIT);
+
+        StringBuilder jpql = new StringBuilder("""
+                select new com.restaurant.dto.OrderHistoryRowDto(
+                    o.id, o.tableId, o.status, o.subtotalAmount, o.activeItemCount, o.createdAt, o.completedAt,
+                    p.id, p.method, p.totalAmount, p.paidAt)
+                from OrderEntity o
+                """);
+        // Lọc theo phương thức thanh toán -> chỉ order đã thanh toán (inner join)
+        jpql.append(filter.method() != null ? "join" : "left join").append(" PaymentEntity p on p.orderId = o.id\n");
+        jpql.append("where 1 = 1\n");
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.tableId() != null) {
+            jpql.append("and o.tableId = :tableId\n");
+            params.put("tableId", filter.tableId());
+        }
+        if (filter.status() != null) {
+            jpql.append("and o.status = :status\n");
+            params.put("status", filter.status());
+        }
+        if (filter.method() != null) {
+            jpql.append("and p.method = :method\n");
+            params.put("method", filter.method());
+        }
+        if (filter.from() != null) {
+            jpql.append("and o.createdAt >= :from\n");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append("and o.createdAt < :to\n");
+            params.put("to", filter.to());
+        }
+        Cursor after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+        if (after != null) {
+            jpql.append("and (o.createdAt < :cursorAt or (o.createdAt = :cursorAt and o.id < :cursorId))\n");
+            params.put("cursorAt", after.createdAt());
+            params.put("cursorId", after.id());
+        }
+        jpql.append("order by o.createdAt desc, o.id desc");
+
+        TypedQuery<OrderHistoryRowDto> query = em.createQuery(jpql.toString(), OrderHistoryRowDto.class);
+        params.forEach(query::setParameter);
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        List<OrderHistoryRowDto> rows = query.setMaxResults(pageSize + 1).getResultList();
+
+        if (mayBeArchived(filter.status())) {
+            List<OrderHistoryRowDto> merged = new ArrayList<>(rows);
+            merged.addAll(findArchived(filter, after, pageSize + 1));
+            merged.sort(NEWEST_FIRST);
+            rows = merged.subList(0, Math.min(merged.size(), pageSize + 1));
+        }
+
+        if (rows.size() <= pageSize) {
+            return new OrderHistoryPageDto(rows, null);
+        }
+        List<OrderHistoryRowDto> page = rows.subList(0, pageSize);
+        OrderHistoryRowDto last = page.get(pageSize - 1);
+        return new OrderHistoryPageDto(List.copyOf(page), encodeCursor(new Cursor(last.createdAt(), last.orderId())));
+    }
+
+    // Bảng archive chỉ chứa order COMPLETED/CANCELED
+    private static boolean mayBeArchived(OrderStatus status) {
+        return status == null || status == OrderStatus.COMPLETED || status == OrderStatus.CANCELED;
+    }
+
+    // Cùng điều kiện + thứ tự với truy vấn JPQL ở trên nhưng trên orders_archive/payments_archive.
+    // Hibernate lưu Instant theo giờ UTC -> tham số/kết quả created_at đổi qua LocalDateTime UTC
+    private List<OrderHistoryRowDto> findArchived(Filter filter, Cursor after, int limit) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT o.id, o.table_id, o.status, o.subtotal_amount, o.active_item_count, o.created_at, o.completed_at,
+                       p.id AS payment_id, p.method, p.total_amount, p.paid_at
+                FROM orders_archive o
+                """);
+        sql.append(filter.method() != null ? "JOIN" : "LEFT JOIN").append(" payments_archive p ON p.order_id = o.id\n");
+        sql.append("WHERE 1 = 1\n");
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.tableId() != null) {
+            sql.append("AND o.table_id = :tableId\n");
+            params.put("tableId", filter.tableId());
+        }
+        if (filter.status() != null) {
+            sql.append("AND o.status = :status\n");
+            params.put("status", filter.status().name());
+        }
+        if (filter.method() != null) {
+            sql.append("AND p.method = :method\n");
+            params.put("method", filter.method().name());
+        }
+        if (filter.from() != null) {
+            sql.append("AND o.created_at >= :from\n");
+            params.put("from", utc(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append("AND o.created_at < :to\n");
+            params.put("to", utc(filter.to()));
+        }
+        if (after != null) {
+            sql.append("AND (o.created_at < :cursorAt OR (o.created_at = :cursorAt AND o.id < :cursorId))\n");
+            params.put("cursorAt", utc(after.createdAt()));
+            params.put("cursorId", after.id());
+        }
+        sql.append("ORDER BY o.created_at DESC, o.id DESC\nLIMIT :limit");
+        params.put("limit", limit);
+
+        return jdbcClient.sql(sql.toString())
+                .params(params)
+                .query((rs, rowNum) -> new OrderHistoryRowDto(
+                        rs.getLong("id"),
+                        rs.getLong("table_id"),
+                        OrderStatus.valueOf(rs.getString("status")),
+                        rs.getBigDecimal("subtotal_amount"),
+                        rs.getInt("active_item_count"),
+                        rs.getObject("created_at", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+                        rs.getObject("completed_at", LocalDateTime.class),
+                        rs.getObject("payment_id", Long.class),
+                        rs.getString("method") == null ? null : PaymentMethod.valueOf(rs.getString("method")),
+                        rs.getBigDecimal("total_amount"),
+                        rs.getObject("paid_at", LocalDateTime.class)
+                ))
+                .list();
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    // Cursor mờ (opaque) cho client: base64url("createdAt|id")
+    private static String encodeCursor(Cursor cursor) {
+        String raw = cursor.createdAt() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new Cursor(Instant.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new BusinessRuleException("Cursor không hợp lệ.");
+        }
+    }
+}
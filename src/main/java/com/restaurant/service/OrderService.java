@@ -1,24 +1,37 @@
 package com.restaurant.service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.restaurant.dto.ActionResponse;
 import com.restaurant.dto.AddOrderItemRequest;
 import com.restaurant.dto.BillDto;
+import com.restaurant.dto.BulkItemStatusRequest;
+import com.restaurant.dto.BulkItemStatusResponse;
 import com.restaurant.dto.CheckoutRequest;
 import com.restaurant.dto.CheckoutResponse;
 import com.restaurant.dto.DraftOrderDto;
+import com.restaurant.dto.KitchenTicketDto;
 import com.restaurant.dto.OrderDetailDto;
+import com.restaurant.dto.OrderLineRow;
 import com.restaurant.dto.UpdateItemStatusRequest;
 import com.restaurant.dto.UpdateOrderItemRequest;
 import com.restaurant.entity.MenuItemEntity;
+import com.restaurant.entity.Money;
 import com.restaurant.entity.OrderEntity;
 import com.restaurant.entity.OrderItemEntity;
 import com.restaurant.entity.PaymentEntity;
@@ -26,6 +39,9 @@ import com.restaurant.entity.TableEntity;
 import com.restaurant.enums.ItemStatus;
 import com.restaurant.enums.OrderStatus;
 import com.restaurant.enums.TableStatus;
+import com.restaurant.event.OrderClosedEvent;
+import com.restaurant.event.OrderItemChangedEvent;
+import com.restaurant.event.OrderLifecycleEvents;
 import com.restaurant.exception.BusinessRuleException;
 import com.restaurant.exception.NotFoundException;
 import com.restaurant.repository.MenuItemRepository;
@@ -34,6 +50,9 @@ import com.restaurant.repository.OrderRepository;
 import com.restaurant.repository.PaymentRepository;
 import com.restaurant.repository.TableRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
 @Service
 public class OrderService {
 
@@ -42,17 +61,32 @@ public class OrderService {
     private final TableRepository tableRepository;
     private final MenuItemRepository menuItemRepository;
     private final PaymentRepository paymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionRetry transactionRetry;
+    private final OutboxService outboxService;
+    private final OrderArchiveService orderArchiveService;
+    private final EntityManager entityManager;
 
     public OrderService(OrderRepository orderRepository,
                     OrderItemRepository orderItemRepository,
                     TableRepository tableRepository,
                     MenuItemRepository menuItemRepository,
-                    PaymentRepository paymentRepository) {
+                    PaymentRepository paymentRepository,
+                    ApplicationEventPublisher eventPublisher,
+                    TransactionRetry transactionRetry,
+                    OutboxService outboxService,
+                    OrderArchiveService orderArchiveService,
+                    EntityManager entityManager) {
     this.orderRepository = orderRepository;
     this.orderItemRepository = orderItemRepository;
     this.tableRepository = tableRepository;
     this.menuItemRepository = menuItemRepository;
     this.paymentRepository = paymentRepository;
+    this.eventPublisher = eventPublisher;
+    this.transactionRetry = transactionRetry;
+    this.outboxService = outboxService;
+    this.orderArchiveService = orderArchiveService;
+    this.entityManager = entityManager;
 }
 
 
@@ -60,35 +94,36 @@ public class OrderService {
     // 1) Waiter xem order DRAFT theo bàn
     // =========================
     public DraftOrderDto getDraftOrderByTable(Long tableId) {
-        TableEntity table = tableRepository.findById(tableId)
-                .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn id=" + tableId));
-
-        if (table.getCurrentOrderId() == null) {
-            throw new NotFoundException("Bàn chưa có order nháp.");
+        List<OrderLineRow> rows = orderRepository.findCurrentOrderLinesByTableId(tableId);
+
+        if (rows.isEmpty()) {
+            // Chỉ truy vấn thêm khi lỗi, để báo đúng nguyên nhân
+            TableEntity table = tableRepository.findById(tableId)
+                    .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn id=" + tableId));
+            if (table.getCurrentOrderId() == null) {
+                throw new NotFoundException("Bàn chưa có order nháp.");
+            }
+            throw new NotFoundException("Không tìm thấy order hiện tại của bàn.");
         }
 
-        OrderEntity order = orderRepository.findById(table.getCurrentOrderId())
-                .orElseThrow(() -> new NotFoundException("Không tìm thấy order hiện tại của bàn."));
-
-        if (order.getStatus() != OrderStatus.DRAFT) {
-            throw new BusinessRuleException("Order hiện tại không phải DRAFT (đang là " + order.getStatus() + ")");
+        OrderLineRow order = rows.get(0);
+        if (order.orderStatus() != OrderStatus.DRAFT) {
+            throw new BusinessRuleException("Order hiện tại không phải DRAFT (đang là " + order.orderStatus() + ")");
         }
 
-        List<OrderItemEntity> items = orderItemRepository.findByOrderIdOrderByIdAsc(order.getId());
-
         return new DraftOrderDto(
-                order.getId(),
-                order.getTableId(),
-                order.getStatus(),
-                order.getNote(),
-                items.stream().map(i -> new DraftOrderDto.DraftOrderItemDto(
-                        i.getId(),
-                        i.getMenuItemId(),
-                        i.getItemNameSnapshot(),
-                        i.getUnitPriceSnapshot(),
-                        i.getQty(),
-                        i.getNote(),
-                        i.getStatus()
+                order.orderId(),
+                order.tableId(),
+                order.orderStatus(),
+                order.orderNote(),
+                itemRows(rows).map(i -> new DraftOrderDto.DraftOrderItemDto(
+                        i.itemId(),
+                        i.menuItemId(),
+                        i.name(),
+                        i.unitPrice().toBigDecimal(),
+                        i.qty(),
+                        i.itemNote(),
+                        i.itemStatus()
                 )).toList()
         );
     }
@@ -96,8 +131,11 @@ public class OrderService {
     // =========================
     // 2) Waiter confirm: DRAFT -> ACTIVE
     // =========================
-    @Transactional
     public ActionResponse confirmOrder(Long orderId) {
+        return transactionRetry.execute(() -> doConfirmOrder(orderId));
+    }
+
+    private ActionResponse doConfirmOrder(Long orderId) {
         OrderEntity order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
 
@@ -105,23 +143,29 @@ public class OrderService {
             throw new BusinessRuleException("Chỉ xác nhận được order DRAFT. Hiện tại: " + order.getStatus());
         }
 
-        List<OrderItemEntity> items = orderItemRepository.findByOrderIdOrderByIdAsc(order.getId());
-        if (items.isEmpty()) {
+        if (order.getActiveItemCount() == 0) {
             throw new BusinessRuleException("Order không có món nào, không thể xác nhận.");
         }
 
         order.setStatus(OrderStatus.ACTIVE);
         orderRepository.save(order);
+        outboxService.recordOrderEvent(orderId, OrderLifecycleEvents.ORDER_CONFIRMED,
+                new OrderLifecycleEvents.OrderConfirmed(orderId, order.getTableId(),
+                        order.getActiveItemCount(), order.getSubtotalAmount().toBigDecimal()));
 
         return new ActionResponse("Đã xác nhận order. Order chuyển sang ACTIVE.");
     }
 
     // =========================
     // 3) CRUD món cho order ACTIVE
+    // Mỗi thao tác cập nhật tổng trên order -> tăng version order -> retry nếu đụng nhau
     // =========================
 
-    @Transactional
     public ActionResponse addItem(Long orderId, AddOrderItemRequest req) {
+        return transactionRetry.execute(() -> doAddItem(orderId, req));
+    }
+
+    private ActionResponse doAddItem(Long orderId, AddOrderItemRequest req) {
         OrderEntity order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
 
@@ -136,23 +180,29 @@ public class OrderService {
         item.setOrderId(order.getId());
         item.setMenuItemId(mi.getId());
         item.setItemNameSnapshot(mi.getName());
-        item.setUnitPriceSnapshot(mi.getPrice());
+        item.setUnitPriceSnapshot(Money.of(mi.getPrice()));
         item.setQty(req.qty());
         item.setNote(req.note());
 
         // Waiter thêm món => mặc định đang xử lý
         // Nếu bạn muốn waiter thêm rồi mới "Send to kitchen" thì đổi thành ItemStatus.DRAFT
         item.setStatus(ItemStatus.PENDING);
+        item.setSentAt(LocalDateTime.now());
 
         item.setCreatedAt(Instant.now());
         item.setUpdatedAt(Instant.now());
 
         orderItemRepository.save(item);
+        OrderTotals.addLine(order, item);
+        eventPublisher.publishEvent(itemChangedEvent(order, item, null, 0, false));
         return new ActionResponse("Đã thêm món vào order.");
     }
 
-    @Transactional
     public ActionResponse updateItem(Long orderId, Long itemId, UpdateOrderItemRequest req) {
+        return transactionRetry.execute(() -> doUpdateItem(orderId, itemId, req));
+    }
+
+    private ActionResponse doUpdateItem(Long orderId, Long itemId, UpdateOrderItemRequest req) {
         OrderEntity order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
 
@@ -172,16 +222,22 @@ public class OrderService {
             throw new BusinessRuleException("Không thể sửa món khi đang ở trạng thái: " + item.getStatus());
         }
 
+        int previousQty = item.getQty();
+        OrderTotals.changeQty(order, item, req.qty());
         item.setQty(req.qty());
         item.setNote(req.note());
         item.setUpdatedAt(Instant.now());
 
         orderItemRepository.save(item);
+        eventPublisher.publishEvent(itemChangedEvent(order, item, item.getStatus(), previousQty, false));
         return new ActionResponse("Đã cập nhật món.");
     }
 
-    @Transactional
     public ActionResponse removeItem(Long orderId, Long itemId) {
+        return transactionRetry.execute(() -> doRemoveItem(orderId, itemId));
+    }
+
+    private ActionResponse doRemoveItem(Long orderId, Long itemId) {
         OrderEntity order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
 
@@ -201,33 +257,37 @@ public class OrderService {
             throw new BusinessRuleException("Không thể xoá món khi đang ở trạng thái: " + item.getStatus());
         }
 
+        OrderTotals.removeLine(order, item);
         orderItemRepository.delete(item);
+        item.setUpdatedAt(Instant.now());
+        eventPublisher.publishEvent(itemChangedEvent(order, item, item.getStatus(), item.getQty(), true));
         return new ActionResponse("Đã xoá món khỏi order.");
     } 
     public OrderDetailDto getOrderDetail(Long orderId) {
-    OrderEntity order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
-
-    List<OrderItemEntity> items = orderItemRepository.findByOrderIdOrderByIdAsc(order.getId());
+    List<OrderLineRow> rows = findOrderLines(orderId);
+    OrderLineRow order = rows.get(0);
 
     return new OrderDetailDto(
-            order.getId(),
-            order.getTableId(),
-            order.getStatus(),
-            order.getNote(),
-            items.stream().map(i -> new OrderDetailDto.ItemDto(
-                    i.getId(),
-                    i.getMenuItemId(),
-                    i.getItemNameSnapshot(),
-                    i.getUnitPriceSnapshot(),
-                    i.getQty(),
-                    i.getNote(),
-                    i.getStatus()
+            order.orderId(),
+            order.tableId(),
+            order.orderStatus(),
+            order.orderNote(),
+            itemRows(rows).map(i -> new OrderDetailDto.ItemDto(
+                    i.itemId(),
+                    i.menuItemId(),
+                    i.name(),
+                    i.unitPrice().toBigDecimal(),
+                    i.qty(),
+                    i.itemNote(),
+                    i.itemStatus()
             )).toList()
     );
 } 
-@Transactional
 public ActionResponse updateItemStatus(Long orderId, Long itemId, UpdateItemStatusRequest req) {
+    return transactionRetry.execute(() -> doUpdateItemStatus(orderId, itemId, req));
+}
+
+private ActionResponse doUpdateItemStatus(Long orderId, Long itemId, UpdateItemStatusRequest req) {
     OrderEntity order = orderRepository.findById(orderId)
             .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
 
@@ -246,6 +306,65 @@ public ActionResponse updateItemStatus(Long orderId, Long itemId, UpdateItemStat
     ItemStatus to = req.newStatus();
 
     validateItemStatusTransition(from, to);
+    applyItemStatus(order, item, to, req.cancelReason());
+    orderItemRepository.save(item);
+
+    return new ActionResponse("Đã đổi trạng thái món từ " + from + " -> " + to);
+}
+
+// =========================
+// Bump hàng loạt (bếp xong cả ticket): load món + order 1 query, ghi lại theo batch
+// Món lỗi không làm hỏng cả lô, trả kết quả từng món
+// =========================
+public BulkItemStatusResponse bulkUpdateItemStatus(List<BulkItemStatusRequest.ItemStatusChange> changes) {
+    return transactionRetry.execute(() -> doBulkUpdateItemStatus(changes));
+}
+
+private BulkItemStatusResponse doBulkUpdateItemStatus(List<BulkItemStatusRequest.ItemStatusChange> changes) {
+    List<Long> itemIds = changes.stream().map(BulkItemStatusRequest.ItemStatusChange::itemId).distinct().toList();
+    Map<Long, OrderItemEntity> items = orderItemRepository.findAllWithOrderByIdIn(itemIds).stream()
+            .collect(Collectors.toMap(OrderItemEntity::getId, Function.identity()));
+
+    List<BulkItemStatusResponse.ItemResult> results = new ArrayList<>(changes.size());
+    List<OrderItemEntity> changed = new ArrayList<>();
+    Set<Long> seen = new HashSet<>();
+
+    for (BulkItemStatusRequest.ItemStatusChange c : changes) {
+        OrderItemEntity item = items.get(c.itemId());
+        ItemStatus from = item == null ? null : item.getStatus();
+        try {
+            if (!seen.add(c.itemId())) {
+                throw new BusinessRuleException("Item bị gửi trùng trong cùng lô.");
+            }
+            if (item == null) {
+                throw new NotFoundException("Không tìm thấy item id=" + c.itemId());
+            }
+            if (!item.getOrderId().equals(c.orderId())) {
+                throw new BusinessRuleException("Item không thuộc order này.");
+            }
+            OrderEntity order = item.getOrder();
+            if (order.getStatus() != OrderStatus.ACTIVE) {
+                throw new BusinessRuleException("Chỉ cập nhật trạng thái món khi order ACTIVE. Hiện tại: " + order.getStatus());
+            }
+
+            validateItemStatusTransition(from, c.newStatus());
+            applyItemStatus(order, item, c.newStatus(), c.cancelReason());
+            changed.add(item);
+            results.add(new BulkItemStatusResponse.ItemResult(c.orderId(), c.itemId(), true, from, item.getStatus(), "OK"));
+        } catch (BusinessRuleException | NotFoundException ex) {
+            results.add(new BulkItemStatusResponse.ItemResult(c.orderId(), c.itemId(), false, from, from, ex.getMessage()));
+        }
+    }
+
+    // Các UPDATE cùng bảng được gom thành JDBC batch (hibernate.jdbc.batch_size + order_updates)
+    orderItemRepository.saveAllAndFlush(changed);
+
+    return new BulkItemStatusResponse(changed.size(), changes.size() - changed.size(), results);
+}
+
+// Đổi trạng thái + timestamp + tổng trên order; dùng chung cho API từng món và bump hàng loạt
+private void applyItemStatus(OrderEntity order, OrderItemEntity item, ItemStatus to, String cancelReason) {
+    ItemStatus from = item.getStatus();
 
     // set timestamp theo trạng thái mới
     LocalDateTime now = LocalDateTime.now();
@@ -255,9 +374,10 @@ public ActionResponse updateItemStatus(Long orderId, Long itemId, UpdateItemStat
         case READY -> item.setReadyAt(now);
         case SERVED -> item.setServedAt(now);
         case CANCELED -> {
+            OrderTotals.cancelLine(order, item);
             item.setCanceledAt(now);
-            if (req.cancelReason() != null && !req.cancelReason().isBlank()) {
-                item.setCanceledReason(req.cancelReason());
+            if (cancelReason != null && !cancelReason.isBlank()) {
+                item.setCanceledReason(cancelReason);
             } else if (item.getCanceledReason() == null) {
                 item.setCanceledReason("Không có lý do");
             }
@@ -267,9 +387,17 @@ public ActionResponse updateItemStatus(Long orderId, Long itemId, UpdateItemStat
 
     item.setStatus(to);
     item.setUpdatedAt(Instant.now());
-    orderItemRepository.save(item);
 
-    return new ActionResponse("Đã đổi trạng thái món từ " + from + " -> " + to);
+    // Đổi trạng thái món (trừ CANCELED) không sửa order, nhưng vẫn ghi outbox của order:
+    // tăng version order lúc commit để 2 transaction ghi event cùng order đụng nhau (retry)
+    // -> event của 1 order luôn commit theo đúng thứ tự id
+    if (to != ItemStatus.CANCELED) {
+        entityManager.lock(order, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+    eventPublisher.publishEvent(itemChangedEvent(order, item, from, item.getQty(), false));
+    outboxService.recordOrderEvent(order.getId(), OrderLifecycleEvents.ITEM_STATUS_CHANGED,
+            new OrderLifecycleEvents.ItemStatusChanged(order.getId(), order.getTableId(), item.getId(),
+                    item.getMenuItemId(), from, to, item.getQty()));
 }
 
 private void validateItemStatusTransition(ItemStatus from, ItemStatus to) {
@@ -301,96 +429,85 @@ private void validateItemStatusTransition(ItemStatus from, ItemStatus to) {
     }
 }
 public BillDto getBill(Long orderId) {
-    OrderEntity order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
-
-    List<OrderItemEntity> items = orderItemRepository.findByOrderIdOrderByIdAsc(orderId);
-
-    // Tính bill trên các món không bị CANCELED
-    List<BillDto.BillItemDto> billItems = items.stream()
-            .filter(i -> i.getStatus() != ItemStatus.CANCELED)
-            .map(i -> {
-                BigDecimal lineTotal = i.getUnitPriceSnapshot()
-                        .multiply(BigDecimal.valueOf(i.getQty()))
-                        .setScale(2, RoundingMode.HALF_UP);
-                return new BillDto.BillItemDto(
-                        i.getId(),
-                        i.getItemNameSnapshot(),
-                        i.getUnitPriceSnapshot(),
-                        i.getQty(),
-                        lineTotal,
-                        i.getStatus()
-                );
-            })
+    List<OrderLineRow> rows = findOrderLines(orderId);
+    OrderLineRow order = rows.get(0);
+
+    // Tính bill trên các món không bị CANCELED (Money: số nguyên đơn vị 0.01, không setScale từng dòng)
+    List<BillDto.BillItemDto> billItems = itemRows(rows)
+            .filter(i -> i.itemStatus() != ItemStatus.CANCELED)
+            .map(i -> new BillDto.BillItemDto(
+                    i.itemId(),
+                    i.name(),
+                    i.unitPrice().toBigDecimal(),
+                    i.qty(),
+                    OrderTotals.lineTotal(i.unitPrice(), i.qty()).toBigDecimal(),
+                    i.itemStatus()
+            ))
             .toList();
 
-    BigDecimal subtotal = billItems.stream()
-            .map(BillDto.BillItemDto::lineTotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .setScale(2, RoundingMode.HALF_UP);
+    // Subtotal lưu sẵn trên order (cập nhật khi thêm/sửa/xoá/huỷ món)
+    Money subtotal = order.orderSubtotal();
 
     // MVP: mặc định 0 (bill endpoint chỉ hiển thị subtotal)
-    BigDecimal discount = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
-    BigDecimal tax = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
-    BigDecimal serviceFee = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+    Money discount = Money.ZERO;
+    Money tax = Money.ZERO;
+    Money serviceFee = Money.ZERO;
 
-    BigDecimal total = subtotal.subtract(discount).add(tax).add(serviceFee)
-            .max(BigDecimal.ZERO)
-            .setScale(2, RoundingMode.HALF_UP);
+    Money total = subtotal.minus(discount).plus(tax).plus(serviceFee).max(Money.ZERO);
 
     return new BillDto(
-            order.getId(),
-            order.getTableId(),
-            order.getStatus(),
+            order.orderId(),
+            order.tableId(),
+            order.orderStatus(),
             billItems,
-            subtotal,
-            discount,
-            tax,
-            serviceFee,
-            total
+            subtotal.toBigDecimal(),
+            discount.toBigDecimal(),
+            tax.toBigDecimal(),
+            serviceFee.toBigDecimal(),
+            total.toBigDecimal()
     );
 }
 
-@Transactional
 public CheckoutResponse checkout(Long orderId, CheckoutRequest req) {
-    OrderEntity order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
+    return transactionRetry.execute(() -> doCheckout(orderId, req));
+}
 
-    if (order.getStatus() != OrderStatus.ACTIVE) {
-        throw new BusinessRuleException("Chỉ checkout được order ACTIVE. Hiện tại: " + order.getStatus());
+// Checkout gọn: 1 câu SELECT ... FOR UPDATE khoá order + bàn, tổng lấy sẵn trên order (không load món).
+// Ghi payment/order/bàn được hoãn đến 1 lần flush nhưng vẫn là 3 câu, 3 round trip: JDBC batch chỉ gom
+// các câu giống hệt nhau. Chặn thanh toán 2 lần bằng unique payments.order_id
+private CheckoutResponse doCheckout(Long orderId, CheckoutRequest req) {
+    OrderEntity order = orderRepository.findByIdForCheckout(orderId).orElse(null);
+    if (order == null) {
+        // Order đã archive chỉ có thể là COMPLETED (đã thanh toán) hoặc CANCELED (chưa từng thanh toán)
+        OrderStatus archived = orderArchiveService.findArchivedStatus(orderId)
+                .orElseThrow(() -> new NotFoundException("Không tìm thấy order id=" + orderId));
+        if (archived == OrderStatus.COMPLETED) {
+            throw new BusinessRuleException("Order đã được thanh toán trước đó.");
+        }
+        throw new BusinessRuleException("Chỉ checkout được order ACTIVE. Hiện tại: " + archived);
     }
 
-    // Chặn checkout 2 lần
-    if (paymentRepository.findByOrderId(orderId).isPresent()) {
-        throw new BusinessRuleException("Order đã được thanh toán trước đó.");
+    if (order.getStatus() != OrderStatus.ACTIVE) {
+        throw new BusinessRuleException("Chỉ checkout được order ACTIVE. Hiện tại: " + order.getStatus());
     }
 
-    // Tính subtotal từ snapshot price
-    List<OrderItemEntity> items = orderItemRepository.findByOrderIdOrderByIdAsc(orderId)
-            .stream()
-            .filter(i -> i.getStatus() != ItemStatus.CANCELED)
-            .toList();
-
-    if (items.isEmpty()) {
+    // Tổng lưu sẵn trên order: không cần load từng món
+    if (order.getActiveItemCount() == 0) {
         throw new BusinessRuleException("Order không có món hợp lệ để thanh toán.");
     }
 
-    BigDecimal subtotal = items.stream()
-            .map(i -> i.getUnitPriceSnapshot().multiply(BigDecimal.valueOf(i.getQty())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .setScale(2, RoundingMode.HALF_UP);
+    Money subtotal = order.getSubtotalAmount();
 
-    BigDecimal discount = (req.discountAmount() == null ? BigDecimal.ZERO : req.discountAmount()).setScale(2, RoundingMode.HALF_UP);
-    BigDecimal tax = (req.taxAmount() == null ? BigDecimal.ZERO : req.taxAmount()).setScale(2, RoundingMode.HALF_UP);
-    BigDecimal serviceFee = (req.serviceFeeAmount() == null ? BigDecimal.ZERO : req.serviceFeeAmount()).setScale(2, RoundingMode.HALF_UP);
+    // Số tiền client gửi đã được giới hạn ở CheckoutRequest (>= 0, tối đa 10 chữ số nguyên, 2 số lẻ)
+    Money discount = Money.ofNullable(req.discountAmount());
+    Money tax = Money.ofNullable(req.taxAmount());
+    Money serviceFee = Money.ofNullable(req.serviceFeeAmount());
 
     if (discount.compareTo(subtotal) > 0) {
         throw new BusinessRuleException("Discount không được lớn hơn subtotal.");
     }
 
-    BigDecimal total = subtotal.subtract(discount).add(tax).add(serviceFee)
-            .max(BigDecimal.ZERO)
-            .setScale(2, RoundingMode.HALF_UP);
+    Money total = subtotal.minus(discount).plus(tax).plus(serviceFee).max(Money.ZERO);
 
     PaymentEntity payment = new PaymentEntity();
     payment.setOrderId(orderId);
@@ -402,22 +519,87 @@ public CheckoutResponse checkout(Long orderId, CheckoutRequest req) {
     payment.setMethod(req.method());
     payment.setPaidAt(LocalDateTime.now());
 
+    // Id payment cấp theo block (pooled) -> INSERT được hoãn đến lúc flush cùng 2 UPDATE bên dưới
     PaymentEntity saved = paymentRepository.save(payment);
 
     // Đóng order
     order.setStatus(OrderStatus.COMPLETED);
     order.setCompletedAt(LocalDateTime.now());
-    orderRepository.save(order);
-
-    // Update bàn -> CLEANING + clear current_order_id
-    TableEntity table = tableRepository.findById(order.getTableId())
-            .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn của order."));
 
+    // Update bàn (đã load + khoá cùng order) -> CLEANING + clear current_order_id
+    TableEntity table = order.getTable();
     table.setStatus(TableStatus.CLEANING);
     table.setCurrentOrderId(null);
-    tableRepository.save(table);
 
-    return new CheckoutResponse(saved.getId(), orderId, total, "Thanh toán thành công. Bàn chuyển sang CLEANING.");
+    try {
+        orderRepository.flush();
+    } catch (DataIntegrityViolationException ex) {
+        if (isDuplicatePayment(ex)) {
+            throw new BusinessRuleException("Order đã được thanh toán trước đó.");
+        }
+        // Lỗi toàn vẹn khác (FK, NOT NULL, UPDATE order/bàn...) là bug thật, không báo nhầm thành thanh toán 2 lần
+        throw ex;
+    }
+
+    eventPublisher.publishEvent(TableService.changedEvent(table));
+    // Món chưa SERVED vẫn đang trên màn hình bếp -> hàng đợi bếp gỡ theo orderId sau commit (không đọc lại món)
+    eventPublisher.publishEvent(new OrderClosedEvent(orderId, Instant.now()));
+    outboxService.recordOrderEvent(orderId, OrderLifecycleEvents.ORDER_CHECKED_OUT,
+            new OrderLifecycleEvents.OrderCheckedOut(orderId, order.getTableId(), saved.getId(),
+                    total.toBigDecimal(), req.method()));
+
+    return new CheckoutResponse(saved.getId(), orderId, total.toBigDecimal(), "Thanh toán thành công. Bàn chuyển sang CLEANING.");
+}
+
+// Chỉ vi phạm unique payments.order_id (MySQL đặt tên key theo cột: "order_id" / "payments.order_id")
+// ở câu INSERT payments mới là "order đã có payment"; trùng khoá chính hay lỗi khác không được nuốt
+private static boolean isDuplicatePayment(DataIntegrityViolationException ex) {
+    if (!(ex.getCause() instanceof ConstraintViolationException violation)
+            || violation.getKind() != ConstraintViolationException.ConstraintKind.UNIQUE) {
+        return false;
+    }
+    String sql = violation.getSQL();
+    String constraint = violation.getConstraintName();
+    return sql != null && sql.toLowerCase(Locale.ROOT).startsWith("insert into payments")
+            && constraint != null && constraint.toLowerCase(Locale.ROOT).endsWith("order_id");
+}
+
+// Event cho hàng đợi bếp (xử lý sau commit); previousStatus/previousQty = trước thay đổi
+static OrderItemChangedEvent itemChangedEvent(OrderEntity order, OrderItemEntity item,
+                                              ItemStatus previousStatus, int previousQty, boolean removed) {
+    KitchenTicketDto ticket = new KitchenTicketDto(
+            item.getId(),
+            item.getOrderId(),
+            order.getTableId(),
+            item.getMenuItemId(),
+            item.getItemNameSnapshot(),
+            item.getQty(),
+            item.getNote(),
+            item.getStatus(),
+            item.getSentAt(),
+            item.getCookingAt(),
+            item.getReadyAt(),
+            item.getServedAt(),
+            item.getUpdatedAt()
+    );
+    return new OrderItemChangedEvent(ticket, previousStatus, previousQty, removed);
+}
+
+// Order + món trong 1 query; luôn có ít nhất 1 dòng nếu order tồn tại
+// Không có ở bảng live -> có thể đã được archive, đọc tiếp bảng archive
+private List<OrderLineRow> findOrderLines(Long orderId) {
+    List<OrderLineRow> rows = orderRepository.findLinesByOrderId(orderId);
+    if (rows.isEmpty()) {
+        rows = orderArchiveService.findArchivedLines(orderId);
+    }
+    if (rows.isEmpty()) {
+        throw new NotFoundException("Không tìm thấy order id=" + orderId);
+    }
+    return rows;
+}
+
+private static Stream<OrderLineRow> itemRows(List<OrderLineRow> rows) {
+    return rows.stream().filter(r -> r.itemId() != null);
 }
 
 
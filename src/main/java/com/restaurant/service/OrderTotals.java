@@ -0,0 +1,60 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.Money;
+import com.restaurant.entity.OrderEntity;
+import com.restaurant.entity.OrderItemEntity;
+import com.restaurant.enums.ItemStatus;
+
+/**
+ * Cập nhật tổng tiền/số món lưu sẵn trên order (subtotal, active/canceled count).
+ * Luôn gọi trong cùng transaction với thay đổi món để bill/checkout đọc O(1).
+ */
+final class OrderTotals {
+
+    private OrderTotals() {
+    }
+
+    static void reset(OrderEntity order) {
+        order.setSubtotalAmount(Money.ZERO);
+        order.setActiveItemCount(0);
+        order.setCanceledItemCount(0);
+    }
+
+    // Món mới (chưa huỷ)
+    static void addLine(OrderEntity order, OrderItemEntity item) {
+        order.setSubtotalAmount(order.getSubtotalAmount().plus(lineTotal(item.getUnitPriceSnapshot(), item.getQty())));
+        order.setActiveItemCount(order.getActiveItemCount() + 1);
+    }
+
+    static void removeLine(OrderEntity order, OrderItemEntity item) {
+        if (item.getStatus() == ItemStatus.CANCELED) {
+            order.setCanceledItemCount(order.getCanceledItemCount() - 1);
+            return;
+        }
+        order.setSubtotalAmount(order.getSubtotalAmount().minus(lineTotal(item.getUnitPriceSnapshot(), item.getQty())));
+        order.setActiveItemCount(order.getActiveItemCount() - 1);
+    }
+
+    // Gọi trước khi set qty mới cho item
+    static void changeQty(OrderEntity order, OrderItemEntity item, int newQty) {
+        if (item.getStatus() == ItemStatus.CANCELED) {
+            return;
+        }
+        Money delta = lineTotal(item.getUnitPriceSnapshot(), newQty - item.getQty());
+        order.setSubtotalAmount(order.getSubtotalAmount().plus(delta));
+    }
+
+    // Gọi trước khi chuyển item sang CANCELED
+    static void cancelLine(OrderEntity order, OrderItemEntity item) {
+        if (item.getStatus() == ItemStatus.CANCELED) {
+            return;
+        }
+        order.setSubtotalAmount(order.getSubtotalAmount().minus(lineTotal(item.getUnitPriceSnapshot(), item.getQty())));
+        order.setActiveItemCount(order.getActiveItemCount() - 1);
+        order.setCanceledItemCount(order.getCanceledItemCount() + 1);
+    }
+
+    static Money lineTotal(Money unitPrice, int qty) {
+        return unitPrice.times(qty);
+    }
+}
@@ -0,0 +1,72 @@
+package com.restaurant.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.restaurant.dto.OrderTotalsCheckRow;
+import com.restaurant.entity.Money;
+import com.restaurant.entity.OrderEntity;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.repository.OrderRepository;
+
+/**
+ * Job đối chiếu tổng lưu sẵn trên order (DRAFT/ACTIVE) với tổng tính lại từ order_items.
+ * Lệch -> log cảnh báo và (nếu bật app.order-totals.repair) ghi lại giá trị đúng.
+ */
+@Service
+public class OrderTotalsVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTotalsVerifier.class);
+    private static final List<OrderStatus> OPEN_STATUSES = List.of(OrderStatus.DRAFT, OrderStatus.ACTIVE);
+
+    private final OrderRepository orderRepository;
+    private final TransactionRetry transactionRetry;
+    private final boolean repair;
+
+    public OrderTotalsVerifier(OrderRepository orderRepository,
+                               TransactionRetry transactionRetry,
+                               @Value("${app.order-totals.repair:true}") boolean repair) {
+        this.orderRepository = orderRepository;
+        this.transactionRetry = transactionRetry;
+        this.repair = repair;
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-totals.verify-millis:600000}")
+    public int verify() {
+        List<OrderTotalsCheckRow> mismatches = orderRepository.checkTotalsByStatusIn(OPEN_STATUSES).stream()
+                .filter(row -> !row.matches())
+                .toList();
+
+        for (OrderTotalsCheckRow row : mismatches) {
+            log.warn("Order {} lệch tổng: lưu subtotal={} active={} canceled={}, thực tế subtotal={} active={} canceled={}",
+                    row.orderId(), row.storedSubtotal(), row.storedActiveCount(), row.storedCanceledCount(),
+                    row.actualSubtotal(), row.actualActiveCount(), row.actualCanceledCount());
+            if (repair) {
+                repair(row);
+            }
+        }
+        return mismatches.size();
+    }
+
+    private void repair(OrderTotalsCheckRow row) {
+        transactionRetry.execute(() -> {
+            OrderEntity order = orderRepository.findById(row.orderId()).orElse(null);
+            // Order vừa bị sửa sau lúc đối chiếu -> để lần chạy sau kiểm tra lại
+            if (order == null
+                    || !order.getSubtotalAmount().equals(row.storedSubtotal())
+                    || !order.getActiveItemCount().equals(row.storedActiveCount())
+                    || !order.getCanceledItemCount().equals(row.storedCanceledCount())) {
+                return null;
+            }
+            order.setSubtotalAmount(Money.of(row.actualSubtotal()));
+            order.setActiveItemCount(row.actualActiveCount().intValue());
+            order.setCanceledItemCount(row.actualCanceledCount().intValue());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.restaurant.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.restaurant.entity.OutboxEventEntity;
+import com.restaurant.event.OutboxListener;
+import com.restaurant.event.OutboxMessage;
+import com.restaurant.repository.OutboxEventRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Rút bảng outbox theo lô và giao cho các OutboxListener.
+ * - Mỗi aggregate (order) chạy tuần tự theo id trên 1 virtual thread -> đúng thứ tự theo order
+ *   (xem điều kiện ở OutboxListener); các order khác nhau chạy song song.
+ * - Event chỉ được đánh dấu đã gửi sau khi mọi listener xử lý xong (at-least-once).
+ * - Event lỗi: tăng attempts, dừng các event sau của cùng order đến lần quét tới.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxListener> listeners;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("outbox-", 0).factory());
+    private final ExecutorService trigger = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("outbox-dispatcher").factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxListener> listeners,
+                            @Value("${app.outbox.batch-size:100}") int batchSize,
+                            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${app.outbox.retention-hours:72}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.listeners = listeners;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    // Gọi sau commit: gom nhiều lần đánh thức thành 1 lượt rút
+    public void wakeUp() {
+        pending.set(true);
+        trigger.execute(this::drain);
+    }
+
+    // Lưới an toàn: event của transaction commit lúc dispatcher đang chạy, event lỗi cần gửi lại
+    @Scheduled(fixedDelayString = "${app.outbox.poll-millis:2000}")
+    public void poll() {
+        pending.set(true);
+        drain();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-millis:3600000}")
+    public void cleanup() {
+        int deleted = outboxEventRepository.deleteDispatchedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Outbox: xoá {} event đã gửi quá {} giờ", deleted, retention.toHours());
+        }
+    }
+
+    private void drain() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (pending.getAndSet(false)) {
+                // Lô đầy -> có thể còn event, rút tiếp
+                if (dispatchBatch() == batchSize) {
+                    pending.set(true);
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.error("Outbox dispatcher lỗi, thử lại ở lần quét sau", ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    int dispatchBatch() {
+        List<OutboxEventEntity> batch = outboxEventRepository
+                .findByDispatchedAtIsNullAndAttemptsLessThanOrderByIdAsc(maxAttempts, Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Gom theo aggregate, giữ thứ tự id trong từng nhóm
+        Map<String, List<OutboxEventEntity>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEventEntity e : batch) {
+            byAggregate.computeIfAbsent(e.getAggregateType() + ":" + e.getAggregateId(), k -> new ArrayList<>()).add(e);
+        }
+
+        List<Future<List<Long>>> futures = new ArrayList<>(byAggregate.size());
+        for (List<OutboxEventEntity> events : byAggregate.values()) {
+            futures.add(workers.submit(() -> deliverInOrder(events)));
+        }
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (Future<List<Long>> f : futures) {
+            try {
+                delivered.addAll(f.get());
+            } catch (Exception ex) {
+                log.error("Outbox: lỗi khi chờ worker", ex);
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.markDispatched(delivered, Instant.now());
+        }
+        return batch.size();
+    }
+
+    // Giao lần lượt; lỗi thì dừng nhóm để event sau không vượt event trước
+    private List<Long> deliverInOrder(List<OutboxEventEntity> events) {
+        List<Long> delivered = new ArrayList<>(events.size());
+        for (OutboxEventEntity e : events) {
+            OutboxMessage message = new OutboxMessage(e.getId(), e.getAggregateType(), e.getAggregateId(),
+                    e.getEventType(), e.getPayload(), e.getCreatedAt(), e.getAttempts());
+            try {
+                for (OutboxListener listener : listeners) {
+                    if (listener.supports(message.eventType())) {
+                        listener.handle(message);
+                    }
+                }
+                delivered.add(e.getId());
+            } catch (RuntimeException ex) {
+                String error = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+                outboxEventRepository.markFailed(e.getId(), error.length() > 500 ? error.substring(0, 500) : error);
+                if (e.getAttempts() + 1 >= maxAttempts) {
+                    log.error("Outbox event {} ({} {}) lỗi {} lần, bỏ qua", e.getId(), e.getEventType(),
+                            e.getAggregateId(), maxAttempts, ex);
+                } else {
+                    log.warn("Outbox event {} ({} {}) lỗi, sẽ gửi lại: {}", e.getId(), e.getEventType(),
+                            e.getAggregateId(), error);
+                }
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        trigger.shutdown();
+        workers.shutdown();
+    }
+}
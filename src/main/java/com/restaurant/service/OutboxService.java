@@ -0,0 +1,58 @@
+package com.restaurant.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.restaurant.entity.OutboxEventEntity;
+import com.restaurant.event.OrderLifecycleEvents;
+import com.restaurant.repository.OutboxEventRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Ghi event vào bảng outbox trong CÙNG transaction với thay đổi nghiệp vụ:
+ * rollback thì event cũng mất, commit thì chắc chắn còn để dispatcher gửi.
+ * Sau commit đánh thức dispatcher ngay, không chờ chu kỳ quét.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final JsonMapper jsonMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         OutboxDispatcher outboxDispatcher,
+                         JsonMapper jsonMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxDispatcher = outboxDispatcher;
+        this.jsonMapper = jsonMapper;
+    }
+
+    // Thứ tự theo order dựa vào id: transaction gọi hàm này phải làm tăng version của order
+    // (sửa order hoặc lock OPTIMISTIC_FORCE_INCREMENT) để 2 transaction cùng order không commit chéo thứ tự id
+    public void recordOrderEvent(Long orderId, String eventType, Object payload) {
+        record(OrderLifecycleEvents.AGGREGATE, orderId, eventType, payload);
+    }
+
+    public void record(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox event phải được ghi trong transaction nghiệp vụ");
+        }
+
+        OutboxEventEntity event = new OutboxEventEntity();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setPayload(jsonMapper.writeValueAsString(payload));
+        outboxEventRepository.save(event);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wakeUp();
+            }
+        });
+    }
+}
@@ -1,23 +1,29 @@
 package com.restaurant.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import com.restaurant.dto.DraftItemRequest;
 import com.restaurant.dto.SubmitOrderRequest;
 import com.restaurant.dto.SubmitOrderResponse;
 import com.restaurant.entity.MenuItemEntity;
+import com.restaurant.entity.Money;
 import com.restaurant.entity.OrderEntity;
 import com.restaurant.entity.OrderItemEntity;
 import com.restaurant.entity.TableEntity;
 import com.restaurant.enums.ItemStatus;
 import com.restaurant.enums.OrderStatus;
 import com.restaurant.enums.TableStatus;
+import com.restaurant.event.OrderLifecycleEvents;
 import com.restaurant.exception.BusinessRuleException;
 import com.restaurant.exception.NotFoundException;
 import com.restaurant.repository.MenuItemRepository;
@@ -32,22 +38,40 @@ public class PublicOrderingService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final MenuItemRepository menuItemRepository;
+    private final QrTokenService qrTokenService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionRetry transactionRetry;
+    private final OutboxService outboxService;
 
     public PublicOrderingService(
             TableRepository tableRepository,
             OrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
-            MenuItemRepository menuItemRepository
+            MenuItemRepository menuItemRepository,
+            QrTokenService qrTokenService,
+            ApplicationEventPublisher eventPublisher,
+            TransactionRetry transactionRetry,
+            OutboxService outboxService
     ) {
         this.tableRepository = tableRepository;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.menuItemRepository = menuItemRepository;
+        this.qrTokenService = qrTokenService;
+        this.eventPublisher = eventPublisher;
+        this.transactionRetry = transactionRetry;
+        this.outboxService = outboxService;
     }
 
-    @Transactional
+    // Khách submit trùng lúc waiter mở bàn -> xung đột version bàn -> retry với dữ liệu mới
     public SubmitOrderResponse submitByToken(String token, SubmitOrderRequest req) {
-        TableEntity table = tableRepository.findByQrToken(token)
+        return transactionRetry.execute(() -> doSubmitByToken(token, req));
+    }
+
+    private SubmitOrderResponse doSubmitByToken(String token, SubmitOrderRequest req) {
+        // Token được xác thực trong bộ nhớ, chỉ token hợp lệ mới load bàn theo id
+        Long tableId = qrTokenService.requireTableId(token);
+        TableEntity table = tableRepository.findById(tableId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn với token=" + token));
 
         // Chặn các trạng thái không phù hợp để gọi món
@@ -55,39 +79,27 @@ public class PublicOrderingService {
             throw new BusinessRuleException("Bàn hiện không thể gọi món. Trạng thái: " + table.getStatus());
         }
 
+        boolean tableChanged = false;
+
         // Nếu bàn đang trống mà khách vào link -> coi như bắt đầu phục vụ
         if (table.getStatus() == TableStatus.AVAILABLE) {
             table.setStatus(TableStatus.OCCUPIED);
             tableRepository.save(table);
+            tableChanged = true;
         }
 
         // Lấy hoặc tạo order DRAFT cho bàn
         OrderEntity order = getOrCreateDraftOrderForTable(table);
 
-        // Xoá items cũ (vì FE submit là “bản cuối”)
-        orderItemRepository.deleteByOrderId(order.getId());
-
         // Validate menu items tồn tại + available
         Map<Long, MenuItemEntity> menuMap = loadAndValidateMenuItems(req);
 
-        // Tạo items mới (snapshot name/price)
-        List<OrderItemEntity> newItems = req.items().stream().map(i -> {
-            MenuItemEntity mi = menuMap.get(i.menuItemId());
-
-            OrderItemEntity oi = new OrderItemEntity();
-            oi.setOrderId(order.getId());
-            oi.setMenuItemId(mi.getId());
-            oi.setItemNameSnapshot(mi.getName());
-            oi.setUnitPriceSnapshot(mi.getPrice());
-            oi.setQty(i.qty());
-            oi.setNote(i.note());
-            oi.setStatus(ItemStatus.DRAFT);  // khách gửi -> vẫn là DRAFT, chờ waiter confirm
-            oi.setCreatedAt(Instant.now());
-            oi.setUpdatedAt(Instant.now());
-            return oi;
-        }).toList();
-
-        orderItemRepository.saveAll(newItems);
+        // FE submit là “bản cuối” của giỏ -> diff với các dòng hiện có thay vì xoá hết rồi insert lại
+        List<OrderItemEntity> lines = mergeDraftLines(order, req, menuMap);
+
+        // Tính lại tổng lưu sẵn trên order theo giỏ mới
+        OrderTotals.reset(order);
+        lines.forEach(oi -> OrderTotals.addLine(order, oi));
 
         // Lưu ghi chú khách (nếu có)
         if (req.customerNote() != null && !req.customerNote().isBlank()) {
@@ -99,8 +111,18 @@ public class PublicOrderingService {
         if (table.getCurrentOrderId() == null) {
             table.setCurrentOrderId(order.getId());
             tableRepository.save(table);
+            tableChanged = true;
+        }
+
+        if (tableChanged) {
+            tableRepository.flush();
+            eventPublisher.publishEvent(TableService.changedEvent(table));
         }
 
+        outboxService.recordOrderEvent(order.getId(), OrderLifecycleEvents.ORDER_SUBMITTED,
+                new OrderLifecycleEvents.OrderSubmitted(order.getId(), table.getId(),
+                        order.getActiveItemCount(), order.getSubtotalAmount().toBigDecimal()));
+
         return new SubmitOrderResponse(
                 order.getId(),
                 table.getId(),
@@ -109,6 +131,76 @@ public class PublicOrderingService {
         );
     }
 
+    /**
+     * Gộp giỏ khách gửi vào các dòng DRAFT hiện có theo khoá (menuItemId, note):
+     * trùng khoá -> chỉ update qty/snapshot khi khác, khoá mới -> insert, dòng không còn trong giỏ -> delete.
+     * Insert/delete đi theo batch; dòng không đổi không phát sinh câu SQL nào.
+     */
+    private List<OrderItemEntity> mergeDraftLines(OrderEntity order, SubmitOrderRequest req,
+                                                  Map<Long, MenuItemEntity> menuMap) {
+        // Gộp các dòng trùng khoá trong request (giữ thứ tự khách gửi)
+        Map<LineKey, Integer> wanted = new LinkedHashMap<>();
+        for (DraftItemRequest i : req.items()) {
+            wanted.merge(LineKey.of(i.menuItemId(), i.note()), i.qty(), Integer::sum);
+        }
+
+        // Dòng DRAFT hiện có theo khoá; dòng trạng thái khác hoặc trùng khoá -> xoá như trước đây
+        Map<LineKey, OrderItemEntity> existing = new HashMap<>();
+        List<OrderItemEntity> toDelete = new ArrayList<>();
+        for (OrderItemEntity oi : orderItemRepository.findByOrderIdOrderByIdAsc(order.getId())) {
+            LineKey key = LineKey.of(oi.getMenuItemId(), oi.getNote());
+            if (oi.getStatus() != ItemStatus.DRAFT || !wanted.containsKey(key) || existing.putIfAbsent(key, oi) != null) {
+                toDelete.add(oi);
+            }
+        }
+
+        List<OrderItemEntity> lines = new ArrayList<>(wanted.size());
+        List<OrderItemEntity> toInsert = new ArrayList<>();
+        Instant now = Instant.now();
+
+        wanted.forEach((key, qty) -> {
+            MenuItemEntity mi = menuMap.get(key.menuItemId());
+            OrderItemEntity oi = existing.get(key);
+
+            if (oi == null) {
+                oi = new OrderItemEntity();
+                oi.setOrderId(order.getId());
+                oi.setMenuItemId(mi.getId());
+                oi.setNote(key.note());
+                oi.setStatus(ItemStatus.DRAFT);  // khách gửi -> vẫn là DRAFT, chờ waiter confirm
+                oi.setCreatedAt(now);
+                oi.setUpdatedAt(now);
+                toInsert.add(oi);
+            }
+
+            // Snapshot name/price theo menu hiện tại; set giá trị y hệt thì Hibernate không sinh UPDATE
+            if (!mi.getName().equals(oi.getItemNameSnapshot())) {
+                oi.setItemNameSnapshot(mi.getName());
+            }
+            Money price = Money.of(mi.getPrice());
+            if (!price.equals(oi.getUnitPriceSnapshot())) {
+                oi.setUnitPriceSnapshot(price);
+            }
+            if (!qty.equals(oi.getQty())) {
+                oi.setQty(qty);
+            }
+            lines.add(oi);
+        });
+
+        if (!toDelete.isEmpty()) {
+            orderItemRepository.deleteAllInBatch(toDelete);
+        }
+        orderItemRepository.saveAll(toInsert);
+        return lines;
+    }
+
+    // Khoá gộp dòng: cùng món + cùng ghi chú (ghi chú rỗng coi như không có)
+    private record LineKey(Long menuItemId, String note) {
+        static LineKey of(Long menuItemId, String note) {
+            return new LineKey(menuItemId, note == null || note.isBlank() ? null : note.strip());
+        }
+    }
+
     private OrderEntity getOrCreateDraftOrderForTable(TableEntity table) {
         if (table.getCurrentOrderId() == null) {
             OrderEntity o = new OrderEntity();
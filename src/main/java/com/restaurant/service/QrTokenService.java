@@ -0,0 +1,186 @@
+package com.restaurant.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.restaurant.dto.PublicTableInfoDto;
+import com.restaurant.dto.TableDto;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.exception.NotFoundException;
+import com.restaurant.repository.TableRepository;
+
+/**
+ * QR token tự xác thực: "t{tableId}.{epoch}.{hmac}".
+ * - Token giả/rác bị loại ngay trong bộ nhớ, không chạm DB.
+ * - Đổi secret/epoch để vô hiệu hoá QR cũ (chấp nhận thêm N epoch trước để chuyển tiếp).
+ * - Token cũ (cột tables.qr_token) vẫn dùng được qua map token -> tableId trong bộ nhớ.
+ */
+@Service
+public class QrTokenService {
+
+    private static final String HMAC_ALG = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+    private static final long LEGACY_RELOAD_MIN_INTERVAL_MILLIS = 30_000;
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final String DEV_SECRET = "dev-qr-secret-change-me";
+
+    // Map token cũ -> tableId kèm thời điểm nạp, thay cả cụm để 2 giá trị luôn khớp nhau
+    private record LegacyTokens(Map<String, Long> tokens, long loadedAt) {}
+
+    private final TableRepository tableRepository;
+    private final TableReadModel tableReadModel;
+    private final SecretKeySpec key;
+    private final int currentEpoch;
+    private final int acceptedPreviousEpochs;
+
+    private final Object legacyReloadLock = new Object();
+    private volatile LegacyTokens legacyTokens;
+
+    public QrTokenService(TableRepository tableRepository,
+                          TableReadModel tableReadModel,
+                          @Value("${app.qr.secret}") String secret,
+                          @Value("${app.qr.epoch:1}") int currentEpoch,
+                          @Value("${app.qr.accepted-previous-epochs:1}") int acceptedPreviousEpochs) {
+        this.tableRepository = tableRepository;
+        this.tableReadModel = tableReadModel;
+        this.key = new SecretKeySpec(requireStrongSecret(secret), HMAC_ALG);
+        this.currentEpoch = currentEpoch;
+        this.acceptedPreviousEpochs = acceptedPreviousEpochs;
+    }
+
+    public String issueToken(Long tableId) {
+        return "t" + tableId + "." + currentEpoch + "." + sign(tableId, currentEpoch);
+    }
+
+    public int getCurrentEpoch() {
+        return currentEpoch;
+    }
+
+    // Token -> tableId, hoặc NotFoundException nếu token không hợp lệ
+    public Long requireTableId(String token) {
+        return resolveTableId(token)
+                .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn với token=" + token));
+    }
+
+    public Optional<Long> resolveTableId(String token) {
+        if (token == null || token.isEmpty() || token.length() > 64) {
+            return Optional.empty();
+        }
+        if (token.charAt(0) == 't' && token.indexOf('.') > 0) {
+            Optional<Long> signed = verifySigned(token);
+            if (signed.isPresent()) {
+                return signed;
+            }
+            // Token cũ ngẫu nhiên cũng có thể bắt đầu bằng 't' và chứa '.'
+        }
+        return resolveLegacy(token);
+    }
+
+    // Thông tin bàn cho trang public: đọc từ read model trong bộ nhớ (submit vẫn đọc DB trong transaction)
+    public PublicTableInfoDto getPublicTableInfo(String token) {
+        Long tableId = requireTableId(token);
+        TableDto t = tableReadModel.get(tableId)
+                .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn với token=" + token));
+        return new PublicTableInfoDto(t.id(), t.code(), t.status());
+    }
+
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    public void reloadLegacyTokens() {
+        synchronized (legacyReloadLock) {
+            loadLegacyTokens();
+        }
+    }
+
+    private Optional<Long> verifySigned(String token) {
+        String[] parts = token.substring(1).split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        long tableId;
+        int epoch;
+        try {
+            tableId = Long.parseLong(parts[0]);
+            epoch = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (epoch > currentEpoch || epoch < currentEpoch - acceptedPreviousEpochs) {
+            return Optional.empty();
+        }
+
+        byte[] expected = sign(tableId, epoch).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = parts[2].getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual) ? Optional.of(tableId) : Optional.empty();
+    }
+
+    private Optional<Long> resolveLegacy(String token) {
+        LegacyTokens current = legacyTokens;
+        if (current == null) {
+            current = reloadLegacyTokensIfUnchanged(null);
+        }
+        Long tableId = current.tokens().get(token);
+        if (tableId != null) {
+            return Optional.of(tableId);
+        }
+
+        // Bàn mới thêm: reload nhưng giới hạn tần suất để token rác không dội vào DB
+        if (System.currentTimeMillis() - current.loadedAt() > LEGACY_RELOAD_MIN_INTERVAL_MILLIS) {
+            return Optional.ofNullable(reloadLegacyTokensIfUnchanged(current).tokens().get(token));
+        }
+        return Optional.empty();
+    }
+
+    // Nhiều token lạ cùng lúc chỉ gây 1 lần findAll: thread đến sau dùng luôn bản vừa nạp
+    private LegacyTokens reloadLegacyTokensIfUnchanged(LegacyTokens seen) {
+        synchronized (legacyReloadLock) {
+            LegacyTokens current = legacyTokens;
+            return current != seen ? current : loadLegacyTokens();
+        }
+    }
+
+    // Gọi trong synchronized(legacyReloadLock)
+    private LegacyTokens loadLegacyTokens() {
+        Map<String, Long> tokens = tableRepository.findAll().stream()
+                .filter(t -> t.getQrToken() != null)
+                .collect(Collectors.toUnmodifiableMap(TableEntity::getQrToken, TableEntity::getId));
+        LegacyTokens loaded = new LegacyTokens(tokens, System.currentTimeMillis());
+        legacyTokens = loaded;
+        return loaded;
+    }
+
+    // Không có secret mặc định: thiếu QR_SECRET hoặc dùng secret dev cũ (đã public) -> app không khởi động
+    private static byte[] requireStrongSecret(String secret) {
+        if (secret == null || secret.isBlank() || secret.equals(DEV_SECRET)) {
+            throw new IllegalStateException("Chưa cấu hình app.qr.secret (biến môi trường QR_SECRET)");
+        }
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.qr.secret phải dài ít nhất " + MIN_SECRET_BYTES + " byte");
+        }
+        return bytes;
+    }
+
+    private String sign(long tableId, int epoch) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALG);
+            mac.init(key);
+            byte[] digest = mac.doFinal((tableId + "." + epoch).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, SIGNATURE_BYTES));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Không tạo được chữ ký QR token", e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.restaurant.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Quản lý các kết nối SSE của một "kênh" (menu, sơ đồ bàn, bếp...).
+ * - Payload được serialize 1 lần rồi gửi cho mọi client.
+ * - Mỗi client có hàng đợi riêng, được xả trên virtual thread riêng: giữ đúng thứ tự event
+ *   của client đó, không chặn request/transaction đã phát ra event, và 1 client chậm/treo
+ *   không làm trễ các client khác.
+ * - Hàng đợi có giới hạn: client tụt lại quá MAX_BACKLOG event bị đóng kết nối,
+ *   client tự kết nối lại và nhận snapshot mới.
+ * Kết nối SSE idle không giữ thread nào (async servlet).
+ */
+public class SseBroadcaster {
+
+    static final int MAX_BACKLOG = 256;
+
+    private final String name;
+    private final long timeoutMillis;
+    private final JsonMapper jsonMapper;
+    private final Map<SseEmitter, Client> clients = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+
+    public SseBroadcaster(String name, long timeoutMillis, JsonMapper jsonMapper) {
+        this.name = name;
+        this.timeoutMillis = timeoutMillis;
+        this.jsonMapper = jsonMapper;
+        this.sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-" + name + "-", 0).factory());
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> clients.remove(emitter));
+        emitter.onTimeout(() -> {
+            clients.remove(emitter);
+            emitter.complete();
+        });
+        emitter.onError(ex -> clients.remove(emitter));
+        clients.put(emitter, new Client(emitter));
+        return emitter;
+    }
+
+    // Gửi riêng cho 1 client (VD: snapshot đầu tiên khi vừa kết nối)
+    public void sendTo(SseEmitter emitter, String eventName, Object data) {
+        String json = jsonMapper.writeValueAsString(data);
+        enqueue(emitter, () -> event(eventName, json));
+    }
+
+    // Như trên nhưng dữ liệu được đọc ngay trên luồng gửi của client: mọi delta xếp hàng sau nó
+    // chắc chắn mới hơn snapshot, client không bị snapshot cũ ghi đè
+    public void sendTo(SseEmitter emitter, String eventName, Supplier<?> dataSupplier) {
+        enqueue(emitter, () -> event(eventName, jsonMapper.writeValueAsString(dataSupplier.get())));
+    }
+
+    public void broadcast(String eventName, Object data) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        String json = jsonMapper.writeValueAsString(data);
+        clients.values().forEach(client -> client.enqueue(() -> event(eventName, json)));
+    }
+
+    // Comment SSE để phát hiện kết nối chết và giữ proxy/Wi-Fi không cắt kết nối
+    public void heartbeat() {
+        clients.values().forEach(client -> client.enqueue(() -> SseEmitter.event().comment("ping")));
+    }
+
+    public int connectionCount() {
+        return clients.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void enqueue(SseEmitter emitter, Supplier<SseEmitter.SseEventBuilder> event) {
+        Client client = clients.get(emitter);
+        if (client != null) {
+            client.enqueue(event);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(String eventName, String json) {
+        return SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON);
+    }
+
+    // Hàng đợi + cờ "đang xả" của 1 kết nối: tối đa 1 virtual thread gửi cho mỗi client tại một thời điểm
+    private final class Client {
+
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger backlog = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (closed) {
+                return;
+            }
+            if (backlog.incrementAndGet() > MAX_BACKLOG) {
+                close();
+                return;
+            }
+            pending.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                while (!closed && (event = pending.poll()) != null) {
+                    backlog.decrementAndGet();
+                    emitter.send(event.get());
+                }
+            } catch (IOException | RuntimeException ex) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Event thêm vào sau lần poll cuối nhưng trước khi nhả cờ
+            if (!closed && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        // Bỏ client; complete() chạy trên thread khác vì có thể bị chặn bởi lần send đang treo
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            clients.remove(emitter, this);
+            pending.clear();
+            sender.execute(emitter::complete);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.restaurant.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.restaurant.event.TableChangedEvent;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Sơ đồ bàn realtime cho tablet waiter: snapshot khi kết nối, sau đó chỉ gửi bàn thay đổi
+@Service
+public class TableBoardBroadcaster {
+
+    private static final long TIMEOUT_MILLIS = 60 * 60 * 1000L;
+
+    private final SseBroadcaster broadcaster;
+    private final TableService tableService;
+
+    public TableBoardBroadcaster(JsonMapper jsonMapper, TableService tableService) {
+        this.broadcaster = new SseBroadcaster("tables", TIMEOUT_MILLIS, jsonMapper);
+        this.tableService = tableService;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = broadcaster.subscribe();
+        broadcaster.sendTo(emitter, "snapshot", tableService::listTables);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onTableChanged(TableChangedEvent event) {
+        broadcaster.broadcast("table", event.table());
+    }
+
+    @Scheduled(fixedDelay = 20_000)
+    public void heartbeat() {
+        broadcaster.heartbeat();
+    }
+}
@@ -0,0 +1,125 @@
+package com.restaurant.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.restaurant.dto.TableDto;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.event.TableChangedEvent;
+import com.restaurant.repository.TableRepository;
+
+/**
+ * Read model trạng thái bàn trong bộ nhớ.
+ * - Cập nhật từ TableChangedEvent sau khi transaction commit (bỏ qua event có version cũ hơn).
+ *   Event đến trước/trong lúc nạp lần đầu vẫn được áp dụng: lần nạp chỉ ghi đè khi version DB không cũ hơn.
+ * - Định kỳ đối chiếu với bảng tables để bắt lệch (sửa tay trong DB, event bị mất...).
+ */
+@Service
+public class TableReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(TableReadModel.class);
+
+    private record Entry(TableDto table, long version) {}
+
+    private final TableRepository tableRepository;
+    private final Map<Long, Entry> tables = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public TableReadModel(TableRepository tableRepository) {
+        this.tableRepository = tableRepository;
+    }
+
+    public List<TableDto> list() {
+        ensureLoaded();
+        return tables.values().stream()
+                .map(Entry::table)
+                .sorted(Comparator.comparing(TableDto::id))
+                .toList();
+    }
+
+    public Optional<TableDto> get(Long tableId) {
+        ensureLoaded();
+        Entry entry = tables.get(tableId);
+        if (entry != null) {
+            return Optional.of(entry.table());
+        }
+        // Bàn mới thêm sau lần đối chiếu gần nhất
+        return tableRepository.findById(tableId).map(t -> {
+            apply(TableService.toDto(t), versionOf(t));
+            return TableService.toDto(t);
+        });
+    }
+
+    @TransactionalEventListener
+    public void onTableChanged(TableChangedEvent event) {
+        apply(event.table(), event.version());
+    }
+
+    @Scheduled(fixedDelayString = "${app.tables.reconcile-millis:60000}")
+    public void reconcile() {
+        if (!loaded) {
+            return;
+        }
+        List<TableEntity> rows = tableRepository.findAll();
+        int drift = 0;
+
+        for (TableEntity t : rows) {
+            TableDto fresh = TableService.toDto(t);
+            long version = versionOf(t);
+            Entry current = tables.get(t.getId());
+            // Chỉ sửa khi DB không cũ hơn bộ nhớ (tránh ghi đè event vừa commit sau lúc đọc DB)
+            if (current == null || (version >= current.version() && !Objects.equals(current.table(), fresh))) {
+                tables.put(t.getId(), new Entry(fresh, version));
+                drift++;
+            }
+        }
+
+        Set<Long> ids = rows.stream().map(TableEntity::getId).collect(Collectors.toSet());
+        for (Long id : List.copyOf(tables.keySet())) {
+            if (!ids.contains(id)) {
+                tables.remove(id);
+                drift++;
+            }
+        }
+
+        if (drift > 0) {
+            log.warn("Table read model lệch {} bàn so với DB, đã đồng bộ lại", drift);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            for (TableEntity t : tableRepository.findAll()) {
+                apply(TableService.toDto(t), versionOf(t));
+            }
+            loaded = true;
+        }
+    }
+
+    private void apply(TableDto table, long version) {
+        tables.merge(table.id(), new Entry(table, version),
+                (old, next) -> next.version() >= old.version() ? next : old);
+    }
+
+    private static long versionOf(TableEntity t) {
+        return t.getVersion() == null ? 0 : t.getVersion();
+    }
+}
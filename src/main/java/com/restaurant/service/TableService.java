@@ -1,116 +1,202 @@
 package com.restaurant.service;
 
+import com.restaurant.dto.BulkTableTransitionResponse;
 import com.restaurant.dto.TableDto;
 import com.restaurant.entity.OrderEntity;
 import com.restaurant.entity.TableEntity;
 import com.restaurant.enums.OrderStatus;
 import com.restaurant.enums.TableStatus;
+import com.restaurant.enums.TableTransition;
+import com.restaurant.event.TableChangedEvent;
 import com.restaurant.exception.BusinessRuleException;
 import com.restaurant.exception.NotFoundException;
 import com.restaurant.repository.OrderRepository;
 import com.restaurant.repository.TableRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TableService {
 
     private final TableRepository tableRepository;
     private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionRetry transactionRetry;
+    private final TableReadModel tableReadModel;
 
-    public TableService(TableRepository tableRepository, OrderRepository orderRepository) {
+    public TableService(TableRepository tableRepository, OrderRepository orderRepository,
+                        ApplicationEventPublisher eventPublisher, TransactionRetry transactionRetry,
+                        TableReadModel tableReadModel) {
         this.tableRepository = tableRepository;
         this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionRetry = transactionRetry;
+        this.tableReadModel = tableReadModel;
     }
 
+    // Đọc từ read model trong bộ nhớ, không truy vấn DB
     public List<TableDto> listTables() {
-        return tableRepository.findAll().stream()
-                .map(t -> new TableDto(t.getId(), t.getCode(), t.getCapacity(), t.getStatus(), t.getCurrentOrderId()))
-                .toList();
+        return tableReadModel.list();
     }
 
-    @Transactional
+    // Các transition chạy trong transaction riêng, retry khi xung đột version
     public TableDto openTable(Long tableId) {
-        TableEntity table = tableRepository.findById(tableId)
-                .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn id=" + tableId));
-
-        if (table.getStatus() != TableStatus.AVAILABLE) {
-            throw new BusinessRuleException("Chỉ mở được bàn khi trạng thái AVAILABLE. Hiện tại: " + table.getStatus());
-        }
-
-        // Đổi trạng thái bàn
-        table.setStatus(TableStatus.OCCUPIED);
-
-        // Nếu chưa có order hiện tại thì tạo order ACTIVE trống (để waiter thêm món)
-        if (table.getCurrentOrderId() == null) {
-            OrderEntity order = new OrderEntity();
-            order.setTableId(table.getId());
-            order.setStatus(OrderStatus.ACTIVE);
-            order.setCreatedAt(Instant.now());
-            order.setConfirmedAt(LocalDateTime.now()); // vì mở bàn bởi nhân viên -> order có hiệu lực
-            OrderEntity saved = orderRepository.save(order);
+        return transactionRetry.execute(() -> transition(tableId, TableTransition.OPEN));
+    }
 
-            table.setCurrentOrderId(saved.getId());
-        }
+    public TableDto requestBill(Long tableId) {
+        return transactionRetry.execute(() -> transition(tableId, TableTransition.REQUEST_BILL));
+    }
 
-        TableEntity savedTable = tableRepository.save(table);
+    public TableDto setCleaning(Long tableId) {
+        return transactionRetry.execute(() -> transition(tableId, TableTransition.SET_CLEANING));
+    }
 
-        return new TableDto(savedTable.getId(), savedTable.getCode(), savedTable.getCapacity(),
-                savedTable.getStatus(), savedTable.getCurrentOrderId());
+    public TableDto setAvailable(Long tableId) {
+        return transactionRetry.execute(() -> transition(tableId, TableTransition.SET_AVAILABLE));
     }
 
-    @Transactional
-    public TableDto requestBill(Long tableId) {
-        TableEntity table = tableRepository.findById(tableId)
-                .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn id=" + tableId));
+    // =========================
+    // Bulk: áp 1 transition cho nhiều bàn trong 1 transaction (mở/đóng khu vực lúc đổi ca)
+    // Bàn sai trạng thái không làm hỏng cả lô: trả kết quả từng bàn.
+    // =========================
+    public BulkTableTransitionResponse bulkTransition(TableTransition transition, List<Long> tableIds) {
+        return transactionRetry.execute(() -> doBulkTransition(transition, tableIds));
+    }
 
-        if (table.getStatus() != TableStatus.OCCUPIED) {
-            throw new BusinessRuleException("Chỉ yêu cầu tính tiền khi bàn OCCUPIED. Hiện tại: " + table.getStatus());
+    private BulkTableTransitionResponse doBulkTransition(TableTransition transition, List<Long> tableIds) {
+        List<Long> ids = tableIds.stream().distinct().toList();
+        Map<Long, TableEntity> tables = tableRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(TableEntity::getId, Function.identity()));
+
+        Map<Long, BulkTableTransitionResponse.TableResult> results = new HashMap<>();
+        List<TableEntity> changed = new ArrayList<>();
+
+        for (Long id : ids) {
+            TableEntity table = tables.get(id);
+            if (table == null) {
+                results.put(id, new BulkTableTransitionResponse.TableResult(id, false, null, "Không tìm thấy bàn id=" + id));
+                continue;
+            }
+            try {
+                validateTransition(table, transition);
+                changed.add(table);
+            } catch (BusinessRuleException ex) {
+                results.put(id, new BulkTableTransitionResponse.TableResult(id, false, toDto(table), ex.getMessage()));
+            }
         }
 
-        if (table.getCurrentOrderId() == null) {
-            throw new BusinessRuleException("Bàn chưa có order hiện tại nên không thể yêu cầu tính tiền.");
+        // Mở bàn: tạo order ACTIVE cho các bàn chưa có order, ghi theo lô
+        if (transition == TableTransition.OPEN) {
+            List<TableEntity> needOrder = changed.stream().filter(t -> t.getCurrentOrderId() == null).toList();
+            List<OrderEntity> orders = orderRepository.saveAll(needOrder.stream().map(TableService::newActiveOrder).toList());
+            for (int i = 0; i < needOrder.size(); i++) {
+                needOrder.get(i).setCurrentOrderId(orders.get(i).getId());
+            }
         }
 
-        table.setStatus(TableStatus.REQUESTING_BILL);
-        TableEntity saved = tableRepository.save(table);
+        changed.forEach(t -> applyTransition(t, transition));
+        tableRepository.saveAllAndFlush(changed);
 
-        return new TableDto(saved.getId(), saved.getCode(), saved.getCapacity(), saved.getStatus(), saved.getCurrentOrderId());
+        for (TableEntity t : changed) {
+            eventPublisher.publishEvent(changedEvent(t));
+            results.put(t.getId(), new BulkTableTransitionResponse.TableResult(t.getId(), true, toDto(t), "OK"));
+        }
+
+        return new BulkTableTransitionResponse(transition, changed.size(), ids.size() - changed.size(),
+                ids.stream().map(results::get).toList());
     }
 
-    @Transactional
-    public TableDto setCleaning(Long tableId) {
+    private TableDto transition(Long tableId, TableTransition transition) {
         TableEntity table = tableRepository.findById(tableId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn id=" + tableId));
 
-        if (table.getStatus() != TableStatus.REQUESTING_BILL) {
-            throw new BusinessRuleException("Chỉ chuyển CLEANING khi bàn REQUESTING_BILL. Hiện tại: " + table.getStatus());
-        }
+        validateTransition(table, transition);
 
-        table.setStatus(TableStatus.CLEANING);
-        TableEntity saved = tableRepository.save(table);
+        // Mở bàn: nếu chưa có order hiện tại thì tạo order ACTIVE trống (để waiter thêm món)
+        if (transition == TableTransition.OPEN && table.getCurrentOrderId() == null) {
+            OrderEntity saved = orderRepository.save(newActiveOrder(table));
+            table.setCurrentOrderId(saved.getId());
+        }
 
-        return new TableDto(saved.getId(), saved.getCode(), saved.getCapacity(), saved.getStatus(), saved.getCurrentOrderId());
+        applyTransition(table, transition);
+        return saveAndPublish(table);
     }
 
-    @Transactional
-    public TableDto setAvailable(Long tableId) {
-        TableEntity table = tableRepository.findById(tableId)
-                .orElseThrow(() -> new NotFoundException("Không tìm thấy bàn id=" + tableId));
+    // Luật trạng thái bàn (dùng chung cho API từng bàn và bulk)
+    private static void validateTransition(TableEntity table, TableTransition transition) {
+        switch (transition) {
+            case OPEN -> {
+                if (table.getStatus() != TableStatus.AVAILABLE) {
+                    throw new BusinessRuleException("Chỉ mở được bàn khi trạng thái AVAILABLE. Hiện tại: " + table.getStatus());
+                }
+            }
+            case REQUEST_BILL -> {
+                if (table.getStatus() != TableStatus.OCCUPIED) {
+                    throw new BusinessRuleException("Chỉ yêu cầu tính tiền khi bàn OCCUPIED. Hiện tại: " + table.getStatus());
+                }
+                if (table.getCurrentOrderId() == null) {
+                    throw new BusinessRuleException("Bàn chưa có order hiện tại nên không thể yêu cầu tính tiền.");
+                }
+            }
+            case SET_CLEANING -> {
+                if (table.getStatus() != TableStatus.REQUESTING_BILL) {
+                    throw new BusinessRuleException("Chỉ chuyển CLEANING khi bàn REQUESTING_BILL. Hiện tại: " + table.getStatus());
+                }
+            }
+            case SET_AVAILABLE -> {
+                if (table.getStatus() != TableStatus.CLEANING) {
+                    throw new BusinessRuleException("Chỉ chuyển AVAILABLE khi bàn CLEANING. Hiện tại: " + table.getStatus());
+                }
+            }
+        }
+    }
 
-        if (table.getStatus() != TableStatus.CLEANING) {
-            throw new BusinessRuleException("Chỉ chuyển AVAILABLE khi bàn CLEANING. Hiện tại: " + table.getStatus());
+    private static void applyTransition(TableEntity table, TableTransition transition) {
+        switch (transition) {
+            case OPEN -> table.setStatus(TableStatus.OCCUPIED);
+            case REQUEST_BILL -> table.setStatus(TableStatus.REQUESTING_BILL);
+            case SET_CLEANING -> table.setStatus(TableStatus.CLEANING);
+            case SET_AVAILABLE -> {
+                // Khi bàn available lại, bạn có thể clear current_order_id (tuỳ luật)
+                table.setStatus(TableStatus.AVAILABLE);
+                table.setCurrentOrderId(null);
+            }
         }
+    }
+
+    private static OrderEntity newActiveOrder(TableEntity table) {
+        OrderEntity order = new OrderEntity();
+        order.setTableId(table.getId());
+        order.setStatus(OrderStatus.ACTIVE);
+        order.setCreatedAt(Instant.now());
+        order.setConfirmedAt(LocalDateTime.now()); // vì mở bàn bởi nhân viên -> order có hiệu lực
+        return order;
+    }
+
+    // Lưu bàn + phát TableChangedEvent (listener nhận sau khi commit)
+    private TableDto saveAndPublish(TableEntity table) {
+        TableEntity saved = tableRepository.saveAndFlush(table);
+        TableDto dto = toDto(saved);
+        eventPublisher.publishEvent(changedEvent(saved));
+        return dto;
+    }
 
-        // Khi bàn available lại, bạn có thể clear current_order_id (tuỳ luật)
-        table.setStatus(TableStatus.AVAILABLE);
-        table.setCurrentOrderId(null);
+    // Gọi sau khi đã flush để version phản ánh đúng giá trị sẽ commit
+    static TableChangedEvent changedEvent(TableEntity t) {
+        return new TableChangedEvent(toDto(t), t.getVersion() == null ? 0 : t.getVersion());
+    }
 
-        TableEntity saved = tableRepository.save(table);
-        return new TableDto(saved.getId(), saved.getCode(), saved.getCapacity(), saved.getStatus(), saved.getCurrentOrderId());
+    static TableDto toDto(TableEntity t) {
+        return new TableDto(t.getId(), t.getCode(), t.getCapacity(), t.getStatus(), t.getCurrentOrderId());
     }
 }
@@ -0,0 +1,86 @@
+package com.restaurant.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket theo key (IP, QR token...), khoá theo stripe:
+ * các key khác stripe không tranh chấp nhau, không có lock toàn cục.
+ */
+public class TokenBucketRateLimiter {
+
+    public record Decision(boolean allowed, long retryAfterSeconds) {}
+
+    private static final int STRIPES = 64;
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+    }
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Decision tryAcquire(String key) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+
+        ReentrantLock lock = locks[(key.hashCode() & 0x7fffffff) % STRIPES];
+        lock.lock();
+        try {
+            refill(bucket, now);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return new Decision(true, 0);
+            }
+            long waitNanos = (long) Math.ceil((1 - bucket.tokens) / refillPerNano);
+            return new Decision(false, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Bỏ các bucket đã đầy lại (không dùng nữa) để map không phình mãi
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(e -> {
+            Bucket bucket = e.getValue();
+            ReentrantLock lock = locks[(e.getKey().hashCode() & 0x7fffffff) % STRIPES];
+            lock.lock();
+            try {
+                refill(bucket, now);
+                return bucket.tokens >= capacity;
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void refill(Bucket bucket, long now) {
+        long elapsed = now - bucket.lastRefillNanos;
+        if (elapsed > 0) {
+            bucket.tokens = Math.min(capacity, bucket.tokens + elapsed * refillPerNano);
+            bucket.lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.restaurant.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.restaurant.exception.ConcurrentUpdateException;
+
+import jakarta.persistence.OptimisticLockException;
+
+/**
+ * Chạy 1 thao tác trong transaction mới, tự retry khi đụng optimistic lock (@Version).
+ * Mỗi lần retry đọc lại dữ liệu và kiểm tra lại luật trạng thái,
+ * nên chỉ dùng cho các transition "đọc - kiểm tra - ghi" (không có side effect ngoài DB).
+ */
+@Component
+public class TransactionRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public TransactionRetry(PlatformTransactionManager transactionManager,
+                            @Value("${app.retry.max-attempts:5}") int maxAttempts,
+                            @Value("${app.retry.backoff-millis:10}") long backoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException ex) {
+                if (attempt >= maxAttempts) {
+                    throw new ConcurrentUpdateException("Dữ liệu vừa được cập nhật bởi thao tác khác, vui lòng thử lại.");
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Backoff tăng dần + jitter để các request đụng nhau không retry cùng lúc
+    private void backoff(int attempt) {
+        long max = backoffMillis * attempt;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(max / 2, max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Bị gián đoạn khi chờ retry.");
+        }
+    }
+}
@@ -0,0 +1,2 @@
+-- Job archive: nhánh CANCELED lọc theo (status, canceled_at), nhánh COMPLETED dùng idx_orders_status_completed (V6)
+CREATE INDEX idx_orders_status_canceled ON orders (status, canceled_at);
@@ -0,0 +1,6 @@
+-- Lịch sử order đọc cả bảng archive: cùng các index keyset như V7 trên bảng live
+-- (bảng archive tạo bằng LIKE ở V6, trước khi V7 thêm index cho bảng live)
+CREATE INDEX idx_orders_archive_created_id ON orders_archive (created_at, id);
+CREATE INDEX idx_orders_archive_table_created_id ON orders_archive (table_id, created_at, id);
+CREATE INDEX idx_orders_archive_status_created_id ON orders_archive (status, created_at, id);
+CREATE INDEX idx_payments_archive_method_order ON payments_archive (method, order_id);
@@ -0,0 +1,3 @@
+-- Optimistic locking (@Version) cho bàn và order
+ALTER TABLE tables ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
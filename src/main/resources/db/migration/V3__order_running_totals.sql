@@ -0,0 +1,17 @@
+-- Tổng lưu sẵn trên order (subtotal, số món đang tính tiền, số món đã huỷ)
+ALTER TABLE orders
+    ADD COLUMN subtotal_amount DECIMAL(12,2) NOT NULL DEFAULT 0,
+    ADD COLUMN active_item_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN canceled_item_count INT NOT NULL DEFAULT 0;
+
+-- Backfill từ order_items hiện có
+UPDATE orders o
+SET o.subtotal_amount = COALESCE((
+        SELECT SUM(i.unit_price_snapshot * i.qty) FROM order_items i
+        WHERE i.order_id = o.id AND i.status <> 'CANCELED'), 0),
+    o.active_item_count = (
+        SELECT COUNT(*) FROM order_items i
+        WHERE i.order_id = o.id AND i.status <> 'CANCELED'),
+    o.canceled_item_count = (
+        SELECT COUNT(*) FROM order_items i
+        WHERE i.order_id = o.id AND i.status = 'CANCELED');
@@ -0,0 +1,7 @@
+-- Bảng "sequence" cho pooled id allocation (MySQL không có SEQUENCE, Hibernate dùng bảng 1 dòng next_val)
+-- Giá trị khởi đầu vượt MAX(id) hiện có ít nhất 1 block (allocationSize = 50) để không đụng id cũ
+CREATE TABLE orders_seq (next_val BIGINT NOT NULL);
+INSERT INTO orders_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM orders;
+
+CREATE TABLE order_items_seq (next_val BIGINT NOT NULL);
+INSERT INTO order_items_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM order_items;
@@ -0,0 +1,13 @@
+-- Transactional outbox: event vòng đời order ghi cùng transaction, dispatcher gửi cho listener sau commit
+CREATE TABLE outbox_events (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(40) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(60) NOT NULL,
+    payload LONGTEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    dispatched_at DATETIME(6) NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500) NULL,
+    INDEX idx_outbox_pending (dispatched_at, attempts, id)
+);
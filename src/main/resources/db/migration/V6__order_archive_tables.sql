@@ -0,0 +1,8 @@
+-- Bảng archive cho order đã hoàn tất/huỷ lâu ngày (cùng cấu trúc, không có FK)
+-- Lưu ý: migration sau này thay đổi cột của orders/order_items/payments phải ALTER cả bảng *_archive
+CREATE TABLE orders_archive LIKE orders;
+CREATE TABLE order_items_archive LIKE order_items;
+CREATE TABLE payments_archive LIKE payments;
+
+-- Job archive lọc theo trạng thái + thời điểm đóng order
+CREATE INDEX idx_orders_status_completed ON orders (status, completed_at);
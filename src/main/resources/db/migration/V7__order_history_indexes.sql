@@ -0,0 +1,6 @@
+-- Keyset pagination lịch sử order: (created_at, id) giảm dần, có/không kèm bộ lọc bàn, trạng thái
+CREATE INDEX idx_orders_created_id ON orders (created_at, id);
+CREATE INDEX idx_orders_table_created_id ON orders (table_id, created_at, id);
+CREATE INDEX idx_orders_status_created_id ON orders (status, created_at, id);
+-- Lọc theo phương thức thanh toán (payments.order_id đã unique)
+CREATE INDEX idx_payments_method_order ON payments (method, order_id);
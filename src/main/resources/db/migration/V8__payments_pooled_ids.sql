@@ -0,0 +1,6 @@
+-- Pooled id cho payments (checkout ghi payment/order/bàn trong 1 lần flush)
+CREATE TABLE payments_seq (next_val BIGINT NOT NULL);
+INSERT INTO payments_seq (next_val)
+SELECT GREATEST(
+    COALESCE((SELECT MAX(id) FROM payments), 0),
+    COALESCE((SELECT MAX(id) FROM payments_archive), 0)) + 51;
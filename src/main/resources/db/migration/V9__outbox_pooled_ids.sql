@@ -0,0 +1,3 @@
+-- Pooled id cho outbox_events (IDENTITY buộc INSERT ngay từng dòng, không batch được)
+CREATE TABLE outbox_events_seq (next_val BIGINT NOT NULL);
+INSERT INTO outbox_events_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM outbox_events;
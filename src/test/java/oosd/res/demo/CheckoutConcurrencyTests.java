@@ -0,0 +1,130 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import com.restaurant.DemoApplication;
+import com.restaurant.dto.CheckoutRequest;
+import com.restaurant.entity.Money;
+import com.restaurant.entity.OrderEntity;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.PaymentMethod;
+import com.restaurant.enums.TableStatus;
+import com.restaurant.event.OrderLifecycleEvents;
+import com.restaurant.exception.BusinessRuleException;
+import com.restaurant.repository.OrderRepository;
+import com.restaurant.repository.TableRepository;
+import com.restaurant.service.OrderService;
+
+// 2 thu ngân checkout cùng 1 order cùng lúc: đúng 1 lần thanh toán, lần còn lại bị từ chối (400)
+@SpringBootTest(classes = DemoApplication.class)
+class CheckoutConcurrencyTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private TableRepository tableRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JdbcClient jdbcClient;
+
+	private Long tableId;
+	private Long orderId;
+
+	@BeforeEach
+	void createActiveOrder() {
+		TableEntity table = new TableEntity();
+		table.setCode("co-" + UUID.randomUUID().toString().substring(0, 8));
+		table.setQrToken(UUID.randomUUID().toString());
+		table.setStatus(TableStatus.OCCUPIED);
+		tableId = tableRepository.save(table).getId();
+
+		OrderEntity order = new OrderEntity();
+		order.setTableId(tableId);
+		order.setStatus(OrderStatus.ACTIVE);
+		order.setSubtotalAmount(Money.ofMinor(12_000_000));
+		order.setActiveItemCount(3);
+		orderId = orderRepository.save(order).getId();
+
+		TableEntity saved = tableRepository.findById(tableId).orElseThrow();
+		saved.setCurrentOrderId(orderId);
+		tableRepository.save(saved);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcClient.sql("UPDATE tables SET current_order_id = NULL WHERE id = :id").param("id", tableId).update();
+		jdbcClient.sql("DELETE FROM outbox_events WHERE aggregate_type = :type AND aggregate_id = :id")
+				.param("type", OrderLifecycleEvents.AGGREGATE).param("id", orderId).update();
+		jdbcClient.sql("DELETE FROM payments WHERE order_id = :id").param("id", orderId).update();
+		orderRepository.deleteById(orderId);
+		tableRepository.deleteById(tableId);
+	}
+
+	@Test
+	void parallelCheckoutsPayExactlyOnce() throws Exception {
+		AtomicInteger succeeded = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+		CountDownLatch start = new CountDownLatch(1);
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				try {
+					orderService.checkout(orderId, new CheckoutRequest(PaymentMethod.CASH, null, null, null));
+					succeeded.incrementAndGet();
+				} catch (BusinessRuleException expected) {
+					// chờ khoá order xong thì thấy order đã COMPLETED (hoặc vướng unique payments.order_id)
+					rejected.incrementAndGet();
+				} catch (Throwable t) {
+					unexpected.add(t);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> f : futures) {
+			f.get();
+		}
+		pool.shutdown();
+
+		assertTrue(unexpected.isEmpty(), () -> "Lỗi không mong đợi: " + unexpected);
+		assertEquals(1, succeeded.get());
+		assertEquals(1, rejected.get());
+
+		assertEquals(1L, jdbcClient.sql("SELECT COUNT(*) FROM payments WHERE order_id = :id")
+				.param("id", orderId).query(Long.class).single());
+
+		OrderEntity order = orderRepository.findById(orderId).orElseThrow();
+		assertEquals(OrderStatus.COMPLETED, order.getStatus());
+		TableEntity table = tableRepository.findById(tableId).orElseThrow();
+		assertEquals(TableStatus.CLEANING, table.getStatus());
+		assertNull(table.getCurrentOrderId());
+	}
+}
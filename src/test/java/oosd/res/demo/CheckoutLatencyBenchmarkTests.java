@@ -0,0 +1,271 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.restaurant.DemoApplication;
+import com.restaurant.dto.CheckoutRequest;
+import com.restaurant.entity.MenuCategoryEntity;
+import com.restaurant.entity.MenuItemEntity;
+import com.restaurant.entity.Money;
+import com.restaurant.entity.OrderEntity;
+import com.restaurant.entity.OrderItemEntity;
+import com.restaurant.entity.PaymentEntity;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.PaymentMethod;
+import com.restaurant.enums.TableStatus;
+import com.restaurant.event.OrderLifecycleEvents;
+import com.restaurant.exception.BusinessRuleException;
+import com.restaurant.repository.OrderItemRepository;
+import com.restaurant.repository.OrderRepository;
+import com.restaurant.repository.PaymentRepository;
+import com.restaurant.repository.TableRepository;
+import com.restaurant.service.LatencyHistogram;
+import com.restaurant.service.OrderService;
+import com.restaurant.service.OutboxService;
+import com.restaurant.service.TransactionRetry;
+
+import jakarta.persistence.EntityManager;
+
+// Đo p50/p99 checkout: N order, M thread, cách cũ (kiểm tra payment, load món, load bàn) so với cách mới.
+// Chạy riêng: ./mvnw test -Pbenchmark (build thường bỏ qua tag "benchmark")
+@Tag("benchmark")
+@SpringBootTest(classes = DemoApplication.class)
+class CheckoutLatencyBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(CheckoutLatencyBenchmarkTests.class);
+
+	private static final int ORDERS = 400;
+	private static final int THREADS = 8;
+	private static final int WARMUP_ORDERS = 40;
+	private static final int ITEMS_PER_ORDER = 6;
+	private static final BigDecimal UNIT_PRICE = BigDecimal.valueOf(45000);
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderItemRepository orderItemRepository;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private TableRepository tableRepository;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private TransactionRetry transactionRetry;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcClient jdbcClient;
+
+	private Long categoryId;
+	private Long menuItemId;
+	private final List<Long> tableIds = new ArrayList<>();
+	private final List<Long> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void seedMenu() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			MenuCategoryEntity category = new MenuCategoryEntity();
+			category.setName("bm-" + UUID.randomUUID().toString().substring(0, 8));
+			em.persist(category);
+			categoryId = category.getId();
+
+			MenuItemEntity menuItem = new MenuItemEntity();
+			menuItem.setCategoryId(categoryId);
+			menuItem.setName(category.getName() + "-lau");
+			menuItem.setPrice(UNIT_PRICE);
+			em.persist(menuItem);
+			menuItemId = menuItem.getId();
+		});
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcClient.sql("UPDATE tables SET current_order_id = NULL WHERE id IN (:ids)").param("ids", tableIds).update();
+		jdbcClient.sql("DELETE FROM outbox_events WHERE aggregate_type = :type AND aggregate_id IN (:ids)")
+				.param("type", OrderLifecycleEvents.AGGREGATE).param("ids", orderIds).update();
+		jdbcClient.sql("DELETE FROM payments WHERE order_id IN (:ids)").param("ids", orderIds).update();
+		jdbcClient.sql("DELETE FROM order_items WHERE order_id IN (:ids)").param("ids", orderIds).update();
+		jdbcClient.sql("DELETE FROM orders WHERE id IN (:ids)").param("ids", orderIds).update();
+		jdbcClient.sql("DELETE FROM tables WHERE id IN (:ids)").param("ids", tableIds).update();
+		jdbcClient.sql("DELETE FROM menu_items WHERE id = :id").param("id", menuItemId).update();
+		jdbcClient.sql("DELETE FROM menu_categories WHERE id = :id").param("id", categoryId).update();
+	}
+
+	@Test
+	void checkoutLatencyOldPathVersusNewPath() throws Exception {
+		Consumer<Long> oldPath = this::legacyCheckout;
+		Consumer<Long> newPath = id -> orderService.checkout(id, new CheckoutRequest(PaymentMethod.CASH, null, null, null));
+
+		// Làm nóng pool kết nối, JIT, cache câu lệnh cho cả 2 cách trước khi đo
+		run(oldPath, seedActiveOrders(WARMUP_ORDERS));
+		run(newPath, seedActiveOrders(WARMUP_ORDERS));
+
+		LatencyHistogram.Summary before = run(oldPath, seedActiveOrders(ORDERS));
+		LatencyHistogram.Summary after = run(newPath, seedActiveOrders(ORDERS));
+
+		log.info("Checkout {} order / {} thread - cũ: p50={}s p99={}s max={}s | mới: p50={}s p99={}s max={}s",
+				ORDERS, THREADS,
+				before.p50Seconds(), before.p99Seconds(), before.maxSeconds(),
+				after.p50Seconds(), after.p99Seconds(), after.maxSeconds());
+
+		assertEquals(ORDERS, before.count());
+		assertEquals(ORDERS, after.count());
+		assertEquals((long) orderIds.size(), jdbcClient.sql("SELECT COUNT(*) FROM payments WHERE order_id IN (:ids)")
+				.param("ids", orderIds).query(Long.class).single());
+	}
+
+	// Checkout các order trên THREADS thread cùng lúc, ghi thời gian từng lần gọi vào histogram
+	private LatencyHistogram.Summary run(Consumer<Long> checkout, List<Long> ids) throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		ConcurrentLinkedQueue<Long> pending = new ConcurrentLinkedQueue<>(ids);
+		ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+		CountDownLatch start = new CountDownLatch(1);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				for (Long id = pending.poll(); id != null; id = pending.poll()) {
+					long startedAt = System.nanoTime();
+					try {
+						checkout.accept(id);
+					} catch (Throwable t) {
+						unexpected.add(t);
+					}
+					histogram.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> f : futures) {
+			f.get();
+		}
+		pool.shutdown();
+
+		assertTrue(unexpected.isEmpty(), () -> "Lỗi không mong đợi: " + unexpected);
+		return histogram.summary();
+	}
+
+	// Cách checkout trước khi gộp: đọc order, kiểm tra payment, load món để cộng tổng, load bàn rồi flush riêng
+	private void legacyCheckout(Long orderId) {
+		transactionRetry.execute(() -> {
+			OrderEntity order = orderRepository.findById(orderId).orElseThrow();
+			if (order.getStatus() != OrderStatus.ACTIVE) {
+				throw new BusinessRuleException("Chỉ checkout được order ACTIVE. Hiện tại: " + order.getStatus());
+			}
+			if (paymentRepository.findByOrderId(orderId).isPresent()) {
+				throw new BusinessRuleException("Order đã được thanh toán trước đó.");
+			}
+
+			Money subtotal = Money.ZERO;
+			for (OrderItemEntity item : orderItemRepository.findByOrderIdOrderByIdAsc(orderId)) {
+				if (item.getStatus() != ItemStatus.CANCELED) {
+					subtotal = subtotal.plus(item.getUnitPriceSnapshot().times(item.getQty()));
+				}
+			}
+
+			PaymentEntity payment = new PaymentEntity();
+			payment.setOrderId(orderId);
+			payment.setSubtotal(subtotal);
+			payment.setTotalAmount(subtotal);
+			payment.setMethod(PaymentMethod.CASH);
+			payment.setPaidAt(LocalDateTime.now());
+			PaymentEntity saved = paymentRepository.save(payment);
+
+			order.setStatus(OrderStatus.COMPLETED);
+			order.setCompletedAt(LocalDateTime.now());
+			orderRepository.save(order);
+
+			TableEntity table = tableRepository.findById(order.getTableId()).orElseThrow();
+			table.setStatus(TableStatus.CLEANING);
+			table.setCurrentOrderId(null);
+			tableRepository.saveAndFlush(table);
+
+			outboxService.recordOrderEvent(orderId, OrderLifecycleEvents.ORDER_CHECKED_OUT,
+					new OrderLifecycleEvents.OrderCheckedOut(orderId, order.getTableId(), saved.getId(),
+							subtotal.toBigDecimal(), PaymentMethod.CASH));
+			return saved.getId();
+		});
+	}
+
+	// Mỗi order 1 bàn riêng, đã phục vụ xong, tổng lưu sẵn trên order như luồng thật
+	private List<Long> seedActiveOrders(int count) {
+		List<Long> ids = new ArrayList<>();
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			for (int i = 0; i < count; i++) {
+				TableEntity table = new TableEntity();
+				table.setCode("bm-" + UUID.randomUUID().toString().substring(0, 8));
+				table.setQrToken(UUID.randomUUID().toString());
+				table.setStatus(TableStatus.OCCUPIED);
+				em.persist(table);
+				tableIds.add(table.getId());
+
+				OrderEntity order = new OrderEntity();
+				order.setTableId(table.getId());
+				order.setStatus(OrderStatus.ACTIVE);
+				order.setSubtotalAmount(Money.of(UNIT_PRICE).times(ITEMS_PER_ORDER));
+				order.setActiveItemCount(ITEMS_PER_ORDER);
+				em.persist(order);
+				table.setCurrentOrderId(order.getId());
+
+				for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+					OrderItemEntity item = new OrderItemEntity();
+					item.setOrderId(order.getId());
+					item.setMenuItemId(menuItemId);
+					item.setItemNameSnapshot("bm-" + j);
+					item.setUnitPriceSnapshot(Money.of(UNIT_PRICE));
+					item.setQty(1);
+					item.setStatus(ItemStatus.SERVED);
+					em.persist(item);
+				}
+				ids.add(order.getId());
+			}
+		});
+		orderIds.addAll(ids);
+		return ids;
+	}
+}
@@ -0,0 +1,97 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.restaurant.exception.BusinessRuleException;
+import com.restaurant.exception.ConcurrentUpdateException;
+import com.restaurant.service.IdempotencyStore;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Idempotency-Key: trả lại kết quả cũ, từ chối body khác, không ghi nhớ lỗi, giới hạn số key
+class IdempotencyStoreTests {
+
+	record Body(BigDecimal amount, String note) {}
+
+	private final AtomicInteger runs = new AtomicInteger();
+
+	private IdempotencyStore store(int maxEntries) {
+		return new IdempotencyStore(JsonMapper.builder().build(), 600, maxEntries, 5);
+	}
+
+	@Test
+	void sameKeyReturnsCachedResultWithoutRunningAgain() {
+		IdempotencyStore store = store(10);
+		Body body = new Body(new BigDecimal("25000"), "bàn 3");
+
+		String first = store.execute("submit", "k1", body, () -> "order-" + runs.incrementAndGet());
+		String second = store.execute("submit", "k1", body, () -> "order-" + runs.incrementAndGet());
+
+		assertEquals("order-1", first);
+		assertEquals("order-1", second);
+		assertEquals(1, runs.get());
+
+		// Cùng key ở scope khác là key khác
+		String otherScope = store.execute("checkout", "k1", body, () -> "order-" + runs.incrementAndGet());
+		assertEquals("order-2", otherScope);
+	}
+
+	@Test
+	void sameKeyWithDifferentBodyIsRejected() {
+		IdempotencyStore store = store(10);
+		store.execute("submit", "k1", new Body(new BigDecimal("25000"), "bàn 3"), runs::incrementAndGet);
+
+		assertThrows(BusinessRuleException.class,
+				() -> store.execute("submit", "k1", new Body(new BigDecimal("25000"), "bàn 4"), runs::incrementAndGet));
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void decimalsDifferingOnlyInTrailingZerosFingerprintTheSame() {
+		IdempotencyStore store = store(10);
+		store.execute("checkout", "k1", new Body(new BigDecimal("10"), null), runs::incrementAndGet);
+
+		Integer tenPointZero = store.execute("checkout", "k1", new Body(new BigDecimal("10.0"), null), runs::incrementAndGet);
+		Integer tenPointZeroZero = store.execute("checkout", "k1", new Body(new BigDecimal("10.00"), null), runs::incrementAndGet);
+		assertEquals(1, tenPointZero);
+		assertEquals(1, tenPointZeroZero);
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void fullStoreOfInFlightKeysRejectsNewKey() {
+		IdempotencyStore store = store(1);
+
+		// k1 đang chạy (chưa xong) chiếm chỗ duy nhất -> k2 bị từ chối thay vì vượt giới hạn
+		assertThrows(ConcurrentUpdateException.class,
+				() -> store.execute("submit", "k1", null,
+						() -> store.execute("submit", "k2", null, runs::incrementAndGet)));
+		assertEquals(0, runs.get());
+
+		// k1 đã kết thúc (lỗi -> không giữ) -> còn chỗ cho key mới
+		Integer accepted = store.execute("submit", "k2", null, runs::incrementAndGet);
+		assertEquals(1, accepted);
+	}
+
+	@Test
+	void failedAttemptIsNotRemembered() {
+		IdempotencyStore store = store(10);
+		Body body = new Body(new BigDecimal("25000"), null);
+
+		assertThrows(IllegalStateException.class, () -> store.execute("submit", "k1", body, () -> {
+			runs.incrementAndGet();
+			throw new IllegalStateException("DB timeout");
+		}));
+		assertEquals(0, store.size());
+
+		Integer retried = store.execute("submit", "k1", body, runs::incrementAndGet);
+		assertEquals(2, retried);
+		assertEquals(1, store.size());
+	}
+}
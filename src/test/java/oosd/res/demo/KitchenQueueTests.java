@@ -0,0 +1,156 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.restaurant.DemoApplication;
+import com.restaurant.dto.AddOrderItemRequest;
+import com.restaurant.dto.CheckoutRequest;
+import com.restaurant.dto.KitchenTicketDto;
+import com.restaurant.dto.UpdateItemStatusRequest;
+import com.restaurant.entity.MenuCategoryEntity;
+import com.restaurant.entity.MenuItemEntity;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.enums.PaymentMethod;
+import com.restaurant.enums.TableStatus;
+import com.restaurant.service.KitchenAllDayCounts;
+import com.restaurant.service.KitchenQueue;
+import com.restaurant.service.OrderService;
+import com.restaurant.service.TableService;
+
+import jakarta.persistence.EntityManager;
+
+// Hàng đợi bếp trong bộ nhớ bám theo vòng đời món qua các transaction thật (event sau commit)
+@SpringBootTest(classes = DemoApplication.class)
+class KitchenQueueTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private TableService tableService;
+
+	@Autowired
+	private KitchenQueue kitchenQueue;
+
+	@Autowired
+	private KitchenAllDayCounts kitchenAllDayCounts;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcClient jdbcClient;
+
+	private Long categoryId;
+	private Long menuItemId;
+	private Long tableId;
+	private Long orderId;
+
+	@BeforeEach
+	void seed() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			MenuCategoryEntity category = new MenuCategoryEntity();
+			category.setName("kq-" + UUID.randomUUID().toString().substring(0, 8));
+			em.persist(category);
+			categoryId = category.getId();
+
+			MenuItemEntity item = new MenuItemEntity();
+			item.setCategoryId(categoryId);
+			item.setName(category.getName() + "-pho");
+			item.setPrice(BigDecimal.valueOf(45000));
+			em.persist(item);
+			menuItemId = item.getId();
+
+			TableEntity table = new TableEntity();
+			table.setCode(category.getName());
+			table.setQrToken(UUID.randomUUID().toString());
+			table.setStatus(TableStatus.AVAILABLE);
+			em.persist(table);
+			tableId = table.getId();
+		});
+		orderId = tableService.openTable(tableId).currentOrderId();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcClient.sql("UPDATE tables SET current_order_id = NULL WHERE id = :id").param("id", tableId).update();
+		jdbcClient.sql("DELETE FROM payments WHERE order_id = :id").param("id", orderId).update();
+		jdbcClient.sql("DELETE FROM order_items WHERE order_id = :id").param("id", orderId).update();
+		jdbcClient.sql("DELETE FROM orders WHERE id = :id").param("id", orderId).update();
+		jdbcClient.sql("DELETE FROM tables WHERE id = :id").param("id", tableId).update();
+		jdbcClient.sql("DELETE FROM menu_items WHERE id = :id").param("id", menuItemId).update();
+		jdbcClient.sql("DELETE FROM menu_categories WHERE id = :id").param("id", categoryId).update();
+	}
+
+	@Test
+	void ticketFollowsItemFromAddToCheckout() {
+		orderService.addItem(orderId, new AddOrderItemRequest(menuItemId, 2, "ít cay"));
+
+		List<KitchenTicketDto> tickets = ticketsOfOrder();
+		assertEquals(1, tickets.size());
+		KitchenTicketDto pending = tickets.get(0);
+		assertEquals(ItemStatus.PENDING, pending.status());
+		assertEquals(2, pending.qty());
+		assertEquals(tableId, pending.tableId());
+		assertNotNull(pending.sentAt());
+		assertEquals(2, kitchenAllDayCounts.get(menuItemId));
+
+		orderService.updateItemStatus(orderId, pending.itemId(), new UpdateItemStatusRequest(ItemStatus.COOKING, null));
+
+		KitchenTicketDto cooking = ticketsOfOrder().get(0);
+		assertEquals(pending.itemId(), cooking.itemId());
+		assertEquals(ItemStatus.COOKING, cooking.status());
+		assertNotNull(cooking.cookingAt());
+		assertEquals(2, kitchenAllDayCounts.get(menuItemId));
+
+		// Checkout khi món còn đang nấu: món phải rời hàng đợi ngay, không chờ đối chiếu định kỳ
+		orderService.checkout(orderId, new CheckoutRequest(PaymentMethod.CASH, null, null, null));
+		assertTrue(ticketsOfOrder().isEmpty(), () -> "Còn món trên hàng đợi sau checkout: " + ticketsOfOrder());
+		assertEquals(0, kitchenAllDayCounts.get(menuItemId));
+
+		// Đối chiếu với DB sau đó cũng không đưa món trở lại
+		kitchenQueue.reconcile();
+		assertTrue(ticketsOfOrder().isEmpty());
+		assertEquals(0, kitchenAllDayCounts.get(menuItemId));
+	}
+
+	@Test
+	void reconcileDoesNotDoubleCountAllDayDeltas() {
+		orderService.addItem(orderId, new AddOrderItemRequest(menuItemId, 3, null));
+		orderService.addItem(orderId, new AddOrderItemRequest(menuItemId, 1, null));
+		assertEquals(4, kitchenAllDayCounts.get(menuItemId));
+
+		// Đối chiếu lặp lại khi DB đã khớp: không được cộng thêm lần nữa
+		kitchenQueue.reconcile();
+		kitchenQueue.reconcile();
+		assertEquals(4, kitchenAllDayCounts.get(menuItemId));
+
+		KitchenTicketDto first = ticketsOfOrder().get(0);
+		orderService.updateItemStatus(orderId, first.itemId(), new UpdateItemStatusRequest(ItemStatus.CANCELED, "khách đổi món"));
+		kitchenQueue.reconcile();
+		assertEquals(4 - first.qty(), kitchenAllDayCounts.get(menuItemId));
+	}
+
+	private List<KitchenTicketDto> ticketsOfOrder() {
+		return kitchenQueue.list().stream().filter(t -> t.orderId().equals(orderId)).toList();
+	}
+}
@@ -0,0 +1,97 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.restaurant.service.LatencyHistogram;
+
+// Percentile của histogram chỉ được lệch lên tối đa ~10% so với giá trị thật (cận trên của bucket)
+class LatencyHistogramTests {
+
+	@Test
+	void uniformDistributionPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int millis = 1; millis <= 1000; millis++) {
+			histogram.record(millis);
+		}
+
+		LatencyHistogram.Summary summary = histogram.summary();
+		assertEquals(1000, summary.count());
+		assertEquals(0.501, summary.meanSeconds());
+		assertWithinBucket(500, summary.p50Seconds());
+		assertWithinBucket(950, summary.p95Seconds());
+		assertWithinBucket(990, summary.p99Seconds());
+		assertEquals(1.0, summary.maxSeconds());
+	}
+
+	@Test
+	void constantDistributionIsExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 100; i++) {
+			histogram.record(250);
+		}
+
+		// Cận trên bucket bị chặn bởi max đã thấy -> đúng bằng giá trị
+		LatencyHistogram.Summary summary = histogram.summary();
+		assertEquals(0.25, summary.p50Seconds());
+		assertEquals(0.25, summary.p95Seconds());
+		assertEquals(0.25, summary.p99Seconds());
+		assertEquals(0.25, summary.meanSeconds());
+	}
+
+	@Test
+	void tailIsNotHiddenByTheBulk() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 90; i++) {
+			histogram.record(10);
+		}
+		for (int i = 0; i < 10; i++) {
+			histogram.record(2000);
+		}
+
+		LatencyHistogram.Summary summary = histogram.summary();
+		assertWithinBucket(10, summary.p50Seconds());
+		assertEquals(2.0, summary.p95Seconds());
+		assertEquals(2.0, summary.p99Seconds());
+		assertEquals(0.209, summary.meanSeconds());
+	}
+
+	@Test
+	void zeroAndNegativeLandInFirstBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(0);
+		histogram.record(-5);
+
+		LatencyHistogram.Summary summary = histogram.summary();
+		assertEquals(2, summary.count());
+		assertEquals(0.0, summary.p99Seconds());
+		assertEquals(0.0, summary.maxSeconds());
+	}
+
+	@Test
+	void resetClearsEverything() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int millis = 1; millis <= 500; millis++) {
+			histogram.record(millis * 10L);
+		}
+		histogram.reset();
+
+		assertEquals(new LatencyHistogram.Summary(0, 0, 0, 0, 0, 0), histogram.summary());
+
+		// Sau reset chỉ còn dữ liệu mới (max cũ 5s không còn chặn/kéo percentile)
+		histogram.record(40);
+		LatencyHistogram.Summary summary = histogram.summary();
+		assertEquals(1, summary.count());
+		assertEquals(0.04, summary.p50Seconds());
+		assertEquals(0.04, summary.p99Seconds());
+		assertEquals(0.04, summary.maxSeconds());
+	}
+
+	private static void assertWithinBucket(long expectedMillis, double actualSeconds) {
+		double actualMillis = actualSeconds * 1000;
+		assertTrue(actualMillis >= expectedMillis && actualMillis <= Math.ceil(expectedMillis * 1.1),
+				() -> "Percentile " + actualMillis + "ms lệch quá 10% so với " + expectedMillis + "ms");
+	}
+}
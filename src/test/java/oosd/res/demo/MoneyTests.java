@@ -0,0 +1,50 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.restaurant.entity.Money;
+
+// Money phải cho kết quả y hệt cách tính BigDecimal cũ của bill/checkout
+class MoneyTests {
+
+	@Test
+	void roundsHalfUpOnceOnTheWayIn() {
+		assertEquals(Money.ofMinor(1235), Money.of(new BigDecimal("12.345")));
+		assertEquals(Money.ofMinor(1234), Money.of(new BigDecimal("12.344")));
+		assertEquals(Money.ofMinor(-1235), Money.of(new BigDecimal("-12.345")));
+		assertEquals(Money.ZERO, Money.ofNullable(null));
+		assertEquals(new BigDecimal("125000.00"), Money.of(new BigDecimal("125000")).toBigDecimal());
+	}
+
+	@Test
+	void matchesBigDecimalBillArithmetic() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int run = 0; run < 1_000; run++) {
+			BigDecimal subtotal = BigDecimal.ZERO;
+			Money money = Money.ZERO;
+			for (int line = 0; line < 40; line++) {
+				BigDecimal price = BigDecimal.valueOf(random.nextLong(1, 50_000_000), 2);
+				int qty = random.nextInt(1, 10);
+				subtotal = subtotal.add(price.multiply(BigDecimal.valueOf(qty))).setScale(2, RoundingMode.HALF_UP);
+				money = money.plus(Money.of(price).times(qty));
+			}
+			BigDecimal discount = BigDecimal.valueOf(random.nextLong(0, 100_000), 2);
+			BigDecimal expected = subtotal.subtract(discount).max(BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+
+			assertEquals(expected, money.minus(Money.of(discount)).max(Money.ZERO).toBigDecimal());
+		}
+	}
+
+	@Test
+	void overflowFailsInsteadOfWrapping() {
+		assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+		assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE / 2).times(3));
+	}
+}
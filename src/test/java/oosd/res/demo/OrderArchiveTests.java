@@ -0,0 +1,207 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.restaurant.DemoApplication;
+import com.restaurant.dto.BillDto;
+import com.restaurant.dto.CheckoutRequest;
+import com.restaurant.dto.OrderDetailDto;
+import com.restaurant.entity.MenuCategoryEntity;
+import com.restaurant.entity.MenuItemEntity;
+import com.restaurant.entity.Money;
+import com.restaurant.entity.OrderEntity;
+import com.restaurant.entity.OrderItemEntity;
+import com.restaurant.entity.PaymentEntity;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.PaymentMethod;
+import com.restaurant.enums.TableStatus;
+import com.restaurant.exception.BusinessRuleException;
+import com.restaurant.service.OrderArchiveService;
+import com.restaurant.service.OrderService;
+
+import jakarta.persistence.EntityManager;
+
+// Job archive: chuyển order cũ (kèm món, payment) sang bảng *_archive, đọc lại được qua OrderService
+@SpringBootTest(classes = DemoApplication.class)
+class OrderArchiveTests {
+
+	@Autowired
+	private OrderArchiveService orderArchiveService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcClient jdbcClient;
+
+	private Long categoryId;
+	private Long menuItemId;
+	private Long tableId;
+	private Long oldCompletedId;
+	private Long oldCanceledId;
+	private Long recentCompletedId;
+
+	@BeforeEach
+	void seed() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			MenuCategoryEntity category = new MenuCategoryEntity();
+			category.setName("arc-" + UUID.randomUUID().toString().substring(0, 8));
+			em.persist(category);
+			categoryId = category.getId();
+
+			MenuItemEntity menuItem = new MenuItemEntity();
+			menuItem.setCategoryId(categoryId);
+			menuItem.setName(category.getName() + "-com");
+			menuItem.setPrice(BigDecimal.valueOf(35000));
+			em.persist(menuItem);
+			menuItemId = menuItem.getId();
+
+			TableEntity table = new TableEntity();
+			table.setCode(category.getName());
+			table.setQrToken(UUID.randomUUID().toString());
+			table.setStatus(TableStatus.AVAILABLE);
+			em.persist(table);
+			tableId = table.getId();
+
+			LocalDateTime old = LocalDateTime.now().minusDays(120);
+			oldCompletedId = seedOrder(menuItem, OrderStatus.COMPLETED, old, 2, true);
+			oldCanceledId = seedOrder(menuItem, OrderStatus.CANCELED, old, 1, false);
+			recentCompletedId = seedOrder(menuItem, OrderStatus.COMPLETED, LocalDateTime.now().minusDays(1), 1, true);
+		});
+	}
+
+	@AfterEach
+	void cleanUp() {
+		List<Long> ids = List.of(oldCompletedId, oldCanceledId, recentCompletedId);
+		for (String table : List.of("payments", "order_items")) {
+			jdbcClient.sql("DELETE FROM " + table + " WHERE order_id IN (:ids)").param("ids", ids).update();
+			jdbcClient.sql("DELETE FROM " + table + "_archive WHERE order_id IN (:ids)").param("ids", ids).update();
+		}
+		jdbcClient.sql("DELETE FROM orders WHERE id IN (:ids)").param("ids", ids).update();
+		jdbcClient.sql("DELETE FROM orders_archive WHERE id IN (:ids)").param("ids", ids).update();
+		jdbcClient.sql("DELETE FROM tables WHERE id = :id").param("id", tableId).update();
+		jdbcClient.sql("DELETE FROM menu_items WHERE id = :id").param("id", menuItemId).update();
+		jdbcClient.sql("DELETE FROM menu_categories WHERE id = :id").param("id", categoryId).update();
+	}
+
+	@Test
+	void archiveMovesOldOrdersWithItemsAndPayments() {
+		assertTrue(orderArchiveService.archive() >= 2);
+
+		// Order cũ (COMPLETED lẫn CANCELED) rời bảng live, đủ dòng ở bảng archive
+		for (Long id : List.of(oldCompletedId, oldCanceledId)) {
+			assertEquals(0, count("orders", "id", id));
+			assertEquals(0, count("order_items", "order_id", id));
+			assertEquals(1, count("orders_archive", "id", id));
+			assertEquals(1, count("order_items_archive", "order_id", id));
+		}
+		assertEquals(0, count("payments", "order_id", oldCompletedId));
+		assertEquals(1, count("payments_archive", "order_id", oldCompletedId));
+
+		// Order mới hoàn tất chưa đủ tuổi: giữ nguyên ở bảng live
+		assertEquals(1, count("orders", "id", recentCompletedId));
+		assertEquals(1, count("order_items", "order_id", recentCompletedId));
+		assertEquals(1, count("payments", "order_id", recentCompletedId));
+		assertEquals(0, count("orders_archive", "id", recentCompletedId));
+
+		// Chạy lại: không còn gì của các order này để chuyển, không nhân đôi dòng archive
+		orderArchiveService.archive();
+		assertEquals(1, count("orders_archive", "id", oldCompletedId));
+		assertEquals(1, count("order_items_archive", "order_id", oldCompletedId));
+	}
+
+	@Test
+	void archivedOrderIsStillReadableAndNotCheckedOutAgain() {
+		orderArchiveService.archive();
+
+		OrderDetailDto detail = orderService.getOrderDetail(oldCompletedId);
+		assertEquals(OrderStatus.COMPLETED, detail.status());
+		assertEquals(tableId, detail.tableId());
+		assertEquals(1, detail.items().size());
+		assertEquals(2, detail.items().get(0).qty());
+		assertEquals(0, new BigDecimal("35000").compareTo(detail.items().get(0).unitPrice()));
+
+		BillDto bill = orderService.getBill(oldCompletedId);
+		assertEquals(1, bill.items().size());
+		assertEquals(0, new BigDecimal("70000").compareTo(bill.items().get(0).lineTotal()));
+		assertEquals(0, new BigDecimal("70000").compareTo(bill.subtotal()));
+		assertEquals(0, new BigDecimal("70000").compareTo(bill.totalAmount()));
+
+		// Checkout lại: COMPLETED -> đã thanh toán; CANCELED -> báo đúng trạng thái, không nói "đã thanh toán"
+		BusinessRuleException paid = assertThrows(BusinessRuleException.class,
+				() -> orderService.checkout(oldCompletedId, new CheckoutRequest(PaymentMethod.CASH, null, null, null)));
+		assertTrue(paid.getMessage().contains("đã được thanh toán"), paid.getMessage());
+
+		BusinessRuleException canceled = assertThrows(BusinessRuleException.class,
+				() -> orderService.checkout(oldCanceledId, new CheckoutRequest(PaymentMethod.CASH, null, null, null)));
+		assertTrue(canceled.getMessage().contains(OrderStatus.CANCELED.name()), canceled.getMessage());
+	}
+
+	private Long seedOrder(MenuItemEntity menuItem, OrderStatus status, LocalDateTime closedAt, int qty, boolean paid) {
+		Money subtotal = paid ? Money.of(menuItem.getPrice()).times(qty) : Money.ZERO;
+
+		OrderEntity order = new OrderEntity();
+		order.setTableId(tableId);
+		order.setStatus(status);
+		order.setSubtotalAmount(subtotal);
+		if (status == OrderStatus.COMPLETED) {
+			order.setCompletedAt(closedAt);
+			order.setActiveItemCount(1);
+		} else {
+			order.setCanceledAt(closedAt);
+			order.setCanceledItemCount(1);
+		}
+		em.persist(order);
+
+		OrderItemEntity item = new OrderItemEntity();
+		item.setOrderId(order.getId());
+		item.setMenuItemId(menuItem.getId());
+		item.setItemNameSnapshot(menuItem.getName());
+		item.setUnitPriceSnapshot(Money.of(menuItem.getPrice()));
+		item.setQty(qty);
+		item.setStatus(paid ? ItemStatus.SERVED : ItemStatus.CANCELED);
+		em.persist(item);
+
+		if (paid) {
+			PaymentEntity payment = new PaymentEntity();
+			payment.setOrderId(order.getId());
+			payment.setSubtotal(subtotal);
+			payment.setTotalAmount(subtotal);
+			payment.setMethod(PaymentMethod.CASH);
+			payment.setPaidAt(closedAt);
+			em.persist(payment);
+		}
+		return order.getId();
+	}
+
+	private long count(String table, String column, Long id) {
+		return jdbcClient.sql("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = :id")
+				.param("id", id)
+				.query(Long.class)
+				.single();
+	}
+}
@@ -0,0 +1,141 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.restaurant.DemoApplication;
+import com.restaurant.dto.OrderHistoryPageDto;
+import com.restaurant.dto.OrderHistoryRowDto;
+import com.restaurant.entity.OrderEntity;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.TableStatus;
+import com.restaurant.service.OrderArchiveService;
+import com.restaurant.service.OrderHistoryService;
+
+import jakarta.persistence.EntityManager;
+
+// Phân trang keyset lịch sử order: trùng created_at, trộn bảng live + archive, không sót/lặp dòng
+@SpringBootTest(classes = DemoApplication.class)
+class OrderHistoryTests {
+
+	@Autowired
+	private OrderHistoryService orderHistoryService;
+
+	@Autowired
+	private OrderArchiveService orderArchiveService;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcClient jdbcClient;
+
+	private Long tableId;
+	private final List<Long> orderIds = new ArrayList<>();
+	private final List<Long> archivedIds = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		Instant sameTime = Instant.now().minus(100, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+		LocalDateTime longAgo = LocalDateTime.now().minusDays(99);
+		LocalDateTime recently = LocalDateTime.now().minusDays(1);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			TableEntity table = new TableEntity();
+			table.setCode("his-" + UUID.randomUUID().toString().substring(0, 8));
+			table.setQrToken(UUID.randomUUID().toString());
+			table.setStatus(TableStatus.AVAILABLE);
+			em.persist(table);
+			tableId = table.getId();
+
+			// 5 order cùng created_at (2 trong đó sẽ bị archive) + 2 order cũ hơn 1 giờ
+			for (int i = 0; i < 5; i++) {
+				boolean archived = i % 2 == 1;
+				Long id = seedOrder(sameTime, archived ? longAgo : recently);
+				if (archived) {
+					archivedIds.add(id);
+				}
+			}
+			seedOrder(sameTime.minus(1, ChronoUnit.HOURS), recently);
+			seedOrder(sameTime.minus(1, ChronoUnit.HOURS), recently);
+		});
+		orderArchiveService.archive();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcClient.sql("DELETE FROM orders WHERE id IN (:ids)").param("ids", orderIds).update();
+		jdbcClient.sql("DELETE FROM orders_archive WHERE id IN (:ids)").param("ids", orderIds).update();
+		jdbcClient.sql("DELETE FROM tables WHERE id = :id").param("id", tableId).update();
+	}
+
+	@Test
+	void cursorPagingOverDuplicateCreatedAtNeitherSkipsNorRepeats() {
+		for (Long id : archivedIds) {
+			assertEquals(1L, jdbcClient.sql("SELECT COUNT(*) FROM orders_archive WHERE id = :id")
+					.param("id", id).query(Long.class).single());
+		}
+
+		OrderHistoryService.Filter filter = new OrderHistoryService.Filter(tableId, null, null, null, null);
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		for (int page = 0; page < orderIds.size(); page++) {
+			OrderHistoryPageDto result = orderHistoryService.findHistory(filter, cursor, 2);
+			assertTrue(result.items().size() <= 2);
+			result.items().stream().map(OrderHistoryRowDto::orderId).forEach(seen::add);
+			cursor = result.nextCursor();
+			if (cursor == null) {
+				break;
+			}
+		}
+
+		// Mới nhất trước: created_at giảm dần, trùng created_at thì id giảm dần
+		List<Long> expected = new ArrayList<>(orderIds.subList(0, 5).reversed());
+		expected.addAll(orderIds.subList(5, 7).reversed());
+		assertEquals(expected, seen);
+	}
+
+	@Test
+	void statusFilterOutsideArchiveSkipsArchivedRows() {
+		OrderHistoryPageDto active = orderHistoryService.findHistory(
+				new OrderHistoryService.Filter(tableId, OrderStatus.ACTIVE, null, null, null), null, 50);
+		assertTrue(active.items().isEmpty());
+		assertNull(active.nextCursor());
+
+		OrderHistoryPageDto completed = orderHistoryService.findHistory(
+				new OrderHistoryService.Filter(tableId, OrderStatus.COMPLETED, null, null, null), null, 50);
+		assertEquals(orderIds.size(), completed.items().size());
+	}
+
+	private Long seedOrder(Instant createdAt, LocalDateTime completedAt) {
+		OrderEntity order = new OrderEntity();
+		order.setTableId(tableId);
+		order.setStatus(OrderStatus.COMPLETED);
+		order.setCreatedAt(createdAt);
+		order.setCompletedAt(completedAt);
+		em.persist(order);
+		orderIds.add(order.getId());
+		return order.getId();
+	}
+}
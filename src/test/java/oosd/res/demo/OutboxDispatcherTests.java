@@ -0,0 +1,139 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import com.restaurant.DemoApplication;
+import com.restaurant.entity.OutboxEventEntity;
+import com.restaurant.event.OutboxListener;
+import com.restaurant.event.OutboxMessage;
+import com.restaurant.repository.OutboxEventRepository;
+import com.restaurant.service.OutboxDispatcher;
+
+// Dispatcher: event lỗi được gửi lại, event sau của cùng aggregate phải chờ, aggregate khác không bị chặn
+@SpringBootTest(classes = DemoApplication.class, properties = {
+		"app.outbox.poll-millis=3600000",
+		"app.outbox.max-attempts=2"
+})
+@Import(OutboxDispatcherTests.ListenerConfig.class)
+class OutboxDispatcherTests {
+
+	private static final String AGGREGATE = "OUTBOX_TEST";
+
+	@TestConfiguration
+	static class ListenerConfig {
+		@Bean
+		RecordingListener recordingListener() {
+			return new RecordingListener();
+		}
+	}
+
+	// Ghi lại id đã nhận; id có trong failuresLeft bị ném lỗi đúng số lần đó
+	static class RecordingListener implements OutboxListener {
+		final List<Long> delivered = new CopyOnWriteArrayList<>();
+		final Map<Long, Integer> failuresLeft = new ConcurrentHashMap<>();
+
+		@Override
+		public void handle(OutboxMessage message) {
+			if (!AGGREGATE.equals(message.aggregateType())) {
+				return;
+			}
+			Integer left = failuresLeft.computeIfPresent(message.id(), (id, n) -> n - 1);
+			if (left != null && left >= 0) {
+				throw new IllegalStateException("máy in offline");
+			}
+			delivered.add(message.id());
+		}
+	}
+
+	@Autowired
+	private OutboxDispatcher outboxDispatcher;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RecordingListener listener;
+
+	@Autowired
+	private JdbcClient jdbcClient;
+
+	@BeforeEach
+	void reset() {
+		listener.delivered.clear();
+		listener.failuresLeft.clear();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcClient.sql("DELETE FROM outbox_events WHERE aggregate_type = :type").param("type", AGGREGATE).update();
+	}
+
+	@Test
+	void failedEventHoldsBackLaterEventsOfSameAggregateOnly() {
+		Long a1 = save(1L, "A1");
+		Long a2 = save(1L, "A2");
+		Long b1 = save(2L, "B1");
+		listener.failuresLeft.put(a1, 1);
+
+		outboxDispatcher.poll();
+
+		// A1 lỗi -> A2 không được vượt lên; aggregate 2 vẫn được giao
+		assertEquals(List.of(b1), listener.delivered);
+		OutboxEventEntity failed = outboxEventRepository.findById(a1).orElseThrow();
+		assertEquals(1, failed.getAttempts());
+		assertNotNull(failed.getLastError());
+		assertNull(failed.getDispatchedAt());
+		assertNull(outboxEventRepository.findById(a2).orElseThrow().getDispatchedAt());
+		assertNotNull(outboxEventRepository.findById(b1).orElseThrow().getDispatchedAt());
+
+		outboxDispatcher.poll();
+
+		// Lần quét sau: A1 gửi lại thành công rồi mới đến A2
+		assertEquals(List.of(b1, a1, a2), listener.delivered);
+		assertNotNull(outboxEventRepository.findById(a1).orElseThrow().getDispatchedAt());
+		assertNotNull(outboxEventRepository.findById(a2).orElseThrow().getDispatchedAt());
+	}
+
+	@Test
+	void eventGivenUpAfterMaxAttemptsReleasesTheRest() {
+		Long a1 = save(3L, "A1");
+		Long a2 = save(3L, "A2");
+		listener.failuresLeft.put(a1, Integer.MAX_VALUE);
+
+		outboxDispatcher.poll();
+		outboxDispatcher.poll();
+		assertEquals(List.of(), listener.delivered);
+		assertEquals(2, outboxEventRepository.findById(a1).orElseThrow().getAttempts());
+
+		// Hết lượt (max-attempts = 2): A1 bị bỏ qua, A2 được giao
+		outboxDispatcher.poll();
+		assertEquals(List.of(a2), listener.delivered);
+		assertNull(outboxEventRepository.findById(a1).orElseThrow().getDispatchedAt());
+	}
+
+	private Long save(Long aggregateId, String payload) {
+		OutboxEventEntity event = new OutboxEventEntity();
+		event.setAggregateType(AGGREGATE);
+		event.setAggregateId(aggregateId);
+		event.setEventType("TEST");
+		event.setPayload("\"" + payload + "\"");
+		return outboxEventRepository.save(event).getId();
+	}
+}
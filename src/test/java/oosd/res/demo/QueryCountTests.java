@@ -0,0 +1,216 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.restaurant.DemoApplication;
+import com.restaurant.dto.CheckoutRequest;
+import com.restaurant.dto.DraftItemRequest;
+import com.restaurant.dto.SubmitOrderRequest;
+import com.restaurant.entity.MenuCategoryEntity;
+import com.restaurant.entity.MenuItemEntity;
+import com.restaurant.entity.Money;
+import com.restaurant.entity.OrderEntity;
+import com.restaurant.entity.OrderItemEntity;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.enums.ItemStatus;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.PaymentMethod;
+import com.restaurant.enums.TableStatus;
+import com.restaurant.repository.MenuItemRepository;
+import com.restaurant.service.OrderService;
+import com.restaurant.service.PublicOrderingService;
+import com.restaurant.service.QrTokenService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// Đếm số câu SQL của các read path nóng để không bị regress (N+1...)
+@SpringBootTest(classes = DemoApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class QueryCountTests {
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private EntityManagerFactory emf;
+
+	@Autowired
+	private MenuItemRepository menuItemRepository;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private PublicOrderingService publicOrderingService;
+
+	@Autowired
+	private QrTokenService qrTokenService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcClient jdbcClient;
+
+	private Statistics stats;
+
+	@BeforeEach
+	void setUp() {
+		stats = emf.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void menuProjectionIsSingleStatementRegardlessOfSize() {
+		seedMenu("small", 2, 3);
+		assertEquals(1, countStatements(() -> menuItemRepository.findMenuRows()));
+
+		seedMenu("large", 25, 12);
+		assertEquals(1, countStatements(() -> menuItemRepository.findMenuRows()));
+	}
+
+	@Test
+	void orderReadsAreSingleStatementRegardlessOfItemCount() {
+		for (int items : new int[] { 1, 40 }) {
+			MenuItemEntity menuItem = seedMenu("order-" + items, 1, 1);
+			TableEntity table = seedTable();
+			OrderEntity order = seedOrder(table, menuItem, items);
+
+			assertEquals(1, countStatements(() -> orderService.getOrderDetail(order.getId())));
+			assertEquals(1, countStatements(() -> orderService.getBill(order.getId())));
+			assertEquals(1, countStatements(() -> orderService.getDraftOrderByTable(table.getId())));
+		}
+	}
+
+	@Test
+	void submitInsertsItemsInBatchesRegardlessOfItemCount() {
+		MenuItemEntity menuItem = seedMenu("submit", 1, 1);
+
+		long single = countSubmitStatements(menuItem, 1);
+		long many = countSubmitStatements(menuItem, 40);
+
+		// 40 dòng vẫn là 1 batch INSERT; cho phép thêm 1 lần lấy block id (select + update bảng *_seq)
+		assertTrue(many <= single + 2, "submit 40 món: " + many + " câu SQL, 1 món: " + single);
+	}
+
+	@Test
+	void checkoutLocksOnceAndWritesInOneFlush() {
+		MenuItemEntity menuItem = seedMenu("checkout", 1, 1);
+		TableEntity table = seedTable();
+		OrderEntity order = seedOrder(table, menuItem, 5);
+		order.setStatus(OrderStatus.ACTIVE);
+		order.setSubtotalAmount(Money.ofMinor(5_000_000));
+		order.setActiveItemCount(5);
+
+		long seqBefore = idBlockCounter();
+		long statements = countStatements(() -> {
+			orderService.checkout(order.getId(), new CheckoutRequest(PaymentMethod.CASH, null, null, null));
+			em.flush();
+		});
+		// Mỗi lần lấy block id (payments_seq / outbox_events_seq) = select + update bảng *_seq, next_val tăng 50
+		long idBlockStatements = 2 * (idBlockCounter() - seqBefore) / 50;
+
+		// SELECT ... FOR UPDATE (order + bàn), INSERT payment, UPDATE order, UPDATE bàn, INSERT outbox.
+		// Món còn trên màn hình bếp được gỡ trong bộ nhớ qua OrderClosedEvent, không đọc lại
+		assertEquals(5, statements - idBlockStatements,
+				"checkout: " + statements + " câu SQL, trong đó " + idBlockStatements + " câu lấy block id");
+	}
+
+	private long countSubmitStatements(MenuItemEntity menuItem, int items) {
+		TableEntity table = seedTable();
+		String token = qrTokenService.issueToken(table.getId());
+		List<DraftItemRequest> lines = IntStream.range(0, items)
+				.mapToObj(i -> new DraftItemRequest(menuItem.getId(), 1, "ghi chú " + i))
+				.toList();
+
+		return countStatements(() -> {
+			publicOrderingService.submitByToken(token, new SubmitOrderRequest(null, lines));
+			em.flush();
+		});
+	}
+
+	private long countStatements(Runnable action) {
+		em.flush();
+		em.clear();
+		stats.clear();
+		action.run();
+		return stats.getPrepareStatementCount();
+	}
+
+	// Đọc next_val ngoài transaction của test: bảng *_seq được cập nhật trong transaction riêng đã commit
+	private long idBlockCounter() {
+		TransactionTemplate separate = new TransactionTemplate(transactionManager);
+		separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return separate.execute(status -> jdbcClient
+				.sql("SELECT (SELECT next_val FROM payments_seq) + (SELECT next_val FROM outbox_events_seq)")
+				.query(Long.class)
+				.single());
+	}
+
+	private MenuItemEntity seedMenu(String prefix, int categories, int itemsPerCategory) {
+		MenuItemEntity last = null;
+		for (int c = 0; c < categories; c++) {
+			MenuCategoryEntity category = new MenuCategoryEntity();
+			category.setName("qc-" + prefix + "-" + c);
+			em.persist(category);
+
+			for (int i = 0; i < itemsPerCategory; i++) {
+				MenuItemEntity item = new MenuItemEntity();
+				item.setCategoryId(category.getId());
+				item.setName("qc-" + prefix + "-" + c + "-" + i);
+				item.setPrice(BigDecimal.valueOf(10000));
+				em.persist(item);
+				last = item;
+			}
+		}
+		return last;
+	}
+
+	private TableEntity seedTable() {
+		TableEntity table = new TableEntity();
+		table.setCode("qc-" + UUID.randomUUID().toString().substring(0, 8));
+		table.setQrToken(UUID.randomUUID().toString());
+		table.setStatus(TableStatus.OCCUPIED);
+		em.persist(table);
+		return table;
+	}
+
+	private OrderEntity seedOrder(TableEntity table, MenuItemEntity menuItem, int items) {
+		OrderEntity order = new OrderEntity();
+		order.setTableId(table.getId());
+		order.setStatus(OrderStatus.DRAFT);
+		em.persist(order);
+		table.setCurrentOrderId(order.getId());
+
+		for (int i = 0; i < items; i++) {
+			OrderItemEntity item = new OrderItemEntity();
+			item.setOrderId(order.getId());
+			item.setMenuItemId(menuItem.getId());
+			item.setItemNameSnapshot(menuItem.getName());
+			item.setUnitPriceSnapshot(Money.of(menuItem.getPrice()));
+			item.setQty(1 + i % 3);
+			item.setStatus(ItemStatus.DRAFT);
+			em.persist(item);
+		}
+		return order;
+	}
+}
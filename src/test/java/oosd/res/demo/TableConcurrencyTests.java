@@ -0,0 +1,128 @@
+package oosd.res.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.restaurant.DemoApplication;
+import com.restaurant.entity.OrderEntity;
+import com.restaurant.entity.TableEntity;
+import com.restaurant.enums.OrderStatus;
+import com.restaurant.enums.TableStatus;
+import com.restaurant.exception.BusinessRuleException;
+import com.restaurant.exception.ConcurrentUpdateException;
+import com.restaurant.repository.OrderRepository;
+import com.restaurant.repository.TableRepository;
+import com.restaurant.service.TableService;
+
+// Hàng trăm transition song song trên 1 bàn: không được mất update, trạng thái cuối luôn nhất quán
+@SpringBootTest(classes = DemoApplication.class)
+class TableConcurrencyTests {
+
+	private static final TableStatus[] CYCLE = {
+			TableStatus.AVAILABLE, TableStatus.OCCUPIED, TableStatus.REQUESTING_BILL, TableStatus.CLEANING
+	};
+
+	@Autowired
+	private TableService tableService;
+
+	@Autowired
+	private TableRepository tableRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	private Long tableId;
+
+	@BeforeEach
+	void createTable() {
+		TableEntity table = new TableEntity();
+		table.setCode("cc-" + UUID.randomUUID().toString().substring(0, 8));
+		table.setQrToken(UUID.randomUUID().toString());
+		table.setStatus(TableStatus.AVAILABLE);
+		tableId = tableRepository.save(table).getId();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		TableEntity table = tableRepository.findById(tableId).orElseThrow();
+		table.setCurrentOrderId(null);
+		tableRepository.save(table);
+		orderRepository.deleteAll(orderRepository.findByTableIdAndStatusIn(tableId, List.of(OrderStatus.values())));
+		tableRepository.deleteById(tableId);
+	}
+
+	@Test
+	void parallelTransitionsNeverLoseUpdates() throws Exception {
+		int tasks = 400;
+		AtomicInteger succeeded = new AtomicInteger();
+		ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+		CountDownLatch start = new CountDownLatch(1);
+
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < tasks; i++) {
+			int op = i % 4;
+			futures.add(pool.submit(() -> {
+				start.await();
+				try {
+					switch (op) {
+						case 0 -> tableService.openTable(tableId);
+						case 1 -> tableService.requestBill(tableId);
+						case 2 -> tableService.setCleaning(tableId);
+						default -> tableService.setAvailable(tableId);
+					}
+					succeeded.incrementAndGet();
+				} catch (BusinessRuleException | ConcurrentUpdateException expected) {
+					// sai trạng thái hoặc hết lượt retry: hợp lệ, không được ghi gì
+				} catch (Throwable t) {
+					unexpected.add(t);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> f : futures) {
+			f.get();
+		}
+		pool.shutdown();
+
+		assertTrue(unexpected.isEmpty(), () -> "Lỗi không mong đợi: " + unexpected);
+
+		TableEntity table = tableRepository.findById(tableId).orElseThrow();
+
+		// Mỗi transition thành công tiến đúng 1 bước trong vòng trạng thái và tăng version đúng 1
+		assertEquals(succeeded.get(), table.getVersion().intValue());
+		assertEquals(CYCLE[succeeded.get() % CYCLE.length], table.getStatus());
+
+		if (table.getStatus() == TableStatus.AVAILABLE) {
+			assertNull(table.getCurrentOrderId());
+		} else {
+			assertNotNull(table.getCurrentOrderId());
+			OrderEntity current = orderRepository.findById(table.getCurrentOrderId()).orElseThrow();
+			assertEquals(tableId, current.getTableId());
+			assertEquals(OrderStatus.ACTIVE, current.getStatus());
+		}
+
+		// Mỗi lần mở bàn thành công tạo đúng 1 order
+		long opened = (succeeded.get() + 3) / 4;
+		assertEquals(opened, orderRepository.findByTableIdAndStatusIn(tableId, List.of(OrderStatus.values())).size());
+	}
+}